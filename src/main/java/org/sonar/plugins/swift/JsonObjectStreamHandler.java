@@ -0,0 +1,151 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.collect.Maps;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Streams a JSON document and hands each object to {@link #onObject} as soon as it is complete.
+ *
+ * Only the primitive values and the nested objects an object holds directly are kept in its map: array elements are
+ * never stored, so a report made of large arrays is read with a memory footprint bounded by the depth of the document
+ * rather than by its size.
+ */
+public abstract class JsonObjectStreamHandler implements ContentHandler {
+
+    private final LinkedList<Frame> frames = new LinkedList<Frame>();
+
+    public void parse(Reader reader) throws IOException, ParseException {
+
+        new JSONParser().parse(reader, this);
+    }
+
+    /**
+     * Called when an object is complete.
+     *
+     * @param key    name of the entry holding the object, directly or through arrays, null for a top level object
+     * @param object primitive values and retained nested objects, by entry name
+     * @param parent closest enclosing object, null for a top level object
+     * @return true to keep the object in its parent, which only happens when it is not an array element
+     */
+    protected abstract boolean onObject(@Nullable String key, Map<String, Object> object, @Nullable Map<String, Object> parent);
+
+    @Override
+    public void startJSON() {
+
+        frames.clear();
+        frames.push(new Frame(null));
+    }
+
+    @Override
+    public void endJSON() {
+
+        frames.clear();
+    }
+
+    @Override
+    public boolean startObject() {
+
+        frames.push(new Frame(Maps.<String, Object>newLinkedHashMap()));
+        return true;
+    }
+
+    @Override
+    public boolean endObject() {
+
+        Frame frame = frames.pop();
+        Frame parent = frames.peek();
+        boolean keep = onObject(parent.key, frame.object, parent.object);
+        if (keep && parent.object != null && parent.arrays == 0) {
+            parent.object.put(parent.key, frame.object);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean startObjectEntry(String key) {
+
+        frames.peek().key = key;
+        return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+
+        return true;
+    }
+
+    @Override
+    public boolean startArray() {
+
+        frames.peek().arrays++;
+        return true;
+    }
+
+    @Override
+    public boolean endArray() {
+
+        frames.peek().arrays--;
+        return true;
+    }
+
+    @Override
+    public boolean primitive(Object value) {
+
+        Frame frame = frames.peek();
+        if (frame.object != null && frame.arrays == 0) {
+            frame.object.put(frame.key, value);
+        }
+        return true;
+    }
+
+    @Nullable
+    public static String stringValue(Map<String, Object> object, String key) {
+
+        Object value = object.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    public static int intValue(Map<String, Object> object, String key, int defaultValue) {
+
+        Object value = object.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    private static class Frame {
+
+        private final Map<String, Object> object;
+        private String key;
+        private int arrays;
+
+        Frame(@Nullable Map<String, Object> object) {
+            this.object = object;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.swift.lang.api.SwiftMetric;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures and check messages computed by the squid scanner for a single file, detached from the
+ * squid index so that they can be cached between analyses.
+ */
+public class SquidFileResult {
+
+    private final String relativePath;
+    private final Map<SwiftMetric, Double> measures = Maps.newEnumMap(SwiftMetric.class);
+    private final List<SquidIssue> issues = Lists.newArrayList();
+    private final List<Integer> functionComplexities = Lists.newArrayList();
+
+    public SquidFileResult(String relativePath) {
+        this.relativePath = relativePath;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public double getDouble(SwiftMetric metric) {
+        Double value = measures.get(metric);
+        return value == null ? 0.0 : value;
+    }
+
+    public void setDouble(SwiftMetric metric, double value) {
+        measures.put(metric, value);
+    }
+
+    public Map<SwiftMetric, Double> getMeasures() {
+        return Collections.unmodifiableMap(measures);
+    }
+
+    /**
+     * Complexity of each function of the file, without the complexity of the functions nested in it.
+     */
+    public List<Integer> getFunctionComplexities() {
+        return Collections.unmodifiableList(functionComplexities);
+    }
+
+    public void addFunctionComplexity(int complexity) {
+        functionComplexities.add(complexity);
+    }
+
+    public List<SquidIssue> getIssues() {
+        return Collections.unmodifiableList(issues);
+    }
+
+    public void addIssue(SquidIssue issue) {
+        issues.add(issue);
+    }
+
+    public static class SquidIssue {
+
+        private final RuleKey ruleKey;
+        private final Integer line;
+        private final String message;
+        private final Double cost;
+
+        public SquidIssue(RuleKey ruleKey, @Nullable Integer line, String message, @Nullable Double cost) {
+            this.ruleKey = ruleKey;
+            this.line = line;
+            this.message = message;
+            this.cost = cost;
+        }
+
+        public RuleKey getRuleKey() {
+            return ruleKey;
+        }
+
+        @Nullable
+        public Integer getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Nullable
+        public Double getCost() {
+            return cost;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.collect.Maps;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.swift.lang.api.SwiftMetric;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * On-disk cache of {@link SquidFileResult}s keyed by relative path and content hash.
+ *
+ * The whole cache is discarded when its fingerprint (plugin version, encoding, active checks...) differs
+ * from the one of the current analysis. Only the files seen during the current analysis are written back.
+ */
+public class SquidResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SquidResultCache.class);
+
+    private static final int MAGIC = 0x53575351;
+    // Bump whenever the way metrics or issues are computed changes
+    private static final int FORMAT_VERSION = 5;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final File cacheFile;
+    private final String fingerprint;
+    private final Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = Maps.newHashMap();
+    private final Map<String, String> currentHashes = Maps.newHashMap();
+
+    private SquidResultCache(File cacheFile, String fingerprint, Map<String, Entry> previousEntries) {
+        this.cacheFile = cacheFile;
+        this.fingerprint = fingerprint;
+        this.previousEntries = previousEntries;
+    }
+
+    public static SquidResultCache load(File cacheFile, String fingerprint) {
+
+        Map<String, Entry> entries = Maps.newHashMap();
+
+        if (cacheFile.isFile()) {
+            try {
+                read(cacheFile, fingerprint, entries);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read squid cache {}, all files will be scanned", cacheFile, e);
+                entries.clear();
+            }
+        }
+
+        return new SquidResultCache(cacheFile, fingerprint, entries);
+    }
+
+    /**
+     * Returns the cached result for this file if its content did not change, null otherwise.
+     */
+    @Nullable
+    public SquidFileResult get(String relativePath, File file) throws IOException {
+
+        String hash = hash(file);
+        currentHashes.put(relativePath, hash);
+
+        Entry entry = previousEntries.get(relativePath);
+        if (entry == null || !entry.hash.equals(hash)) {
+            return null;
+        }
+
+        currentEntries.put(relativePath, entry);
+        return entry.result;
+    }
+
+    public void put(SquidFileResult result) {
+
+        String hash = currentHashes.get(result.getRelativePath());
+        if (hash != null) {
+            currentEntries.put(result.getRelativePath(), new Entry(hash, result));
+        }
+    }
+
+    public void save() {
+
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            LOGGER.warn("Unable to create directory for squid cache {}", cacheFile);
+            return;
+        }
+
+        File tmpFile = new File(cacheFile.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            write(out);
+            out.close();
+            out = null;
+
+            if (cacheFile.exists() && !cacheFile.delete() || !tmpFile.renameTo(cacheFile)) {
+                LOGGER.warn("Unable to replace squid cache {}", cacheFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write squid cache {}", cacheFile, e);
+        } finally {
+            IOUtils.closeQuietly(out);
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOGGER.debug("Unable to delete {}", tmpFile);
+            }
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(fingerprint);
+        out.writeInt(currentEntries.size());
+
+        for (Map.Entry<String, Entry> mapEntry : currentEntries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            out.writeUTF(mapEntry.getKey());
+            out.writeUTF(entry.hash);
+
+            Map<SwiftMetric, Double> measures = entry.result.getMeasures();
+            out.writeInt(measures.size());
+            for (Map.Entry<SwiftMetric, Double> measure : measures.entrySet()) {
+                out.writeUTF(measure.getKey().name());
+                out.writeDouble(measure.getValue());
+            }
+
+            out.writeInt(entry.result.getFunctionComplexities().size());
+            for (int complexity : entry.result.getFunctionComplexities()) {
+                out.writeInt(complexity);
+            }
+
+            out.writeInt(entry.result.getIssues().size());
+            for (SquidFileResult.SquidIssue issue : entry.result.getIssues()) {
+                out.writeUTF(issue.getRuleKey().toString());
+                out.writeInt(issue.getLine() == null ? -1 : issue.getLine());
+                out.writeUTF(issue.getMessage());
+                out.writeBoolean(issue.getCost() != null);
+                if (issue.getCost() != null) {
+                    out.writeDouble(issue.getCost());
+                }
+            }
+        }
+    }
+
+    private static void read(File cacheFile, String fingerprint, Map<String, Entry> entries) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+                LOGGER.info("Squid cache {} is outdated, all files will be scanned", cacheFile);
+                return;
+            }
+
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String relativePath = in.readUTF();
+                String hash = in.readUTF();
+                SquidFileResult result = new SquidFileResult(relativePath);
+
+                int measureCount = in.readInt();
+                for (int j = 0; j < measureCount; j++) {
+                    String metric = in.readUTF();
+                    double value = in.readDouble();
+                    result.setDouble(SwiftMetric.valueOf(metric), value);
+                }
+
+                int functionCount = in.readInt();
+                for (int j = 0; j < functionCount; j++) {
+                    result.addFunctionComplexity(in.readInt());
+                }
+
+                int issueCount = in.readInt();
+                for (int j = 0; j < issueCount; j++) {
+                    RuleKey ruleKey = RuleKey.parse(in.readUTF());
+                    int line = in.readInt();
+                    String message = in.readUTF();
+                    Double cost = in.readBoolean() ? in.readDouble() : null;
+                    result.addIssue(new SquidFileResult.SquidIssue(ruleKey, line < 0 ? null : line, message, cost));
+                }
+
+                entries.put(relativePath, new Entry(hash, result));
+            }
+        } catch (RuntimeException e) {
+            // unknown metric, invalid rule key...
+            throw new IOException("Corrupted squid cache: " + e.getMessage(), e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private static String hash(File file) throws IOException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+
+        byte[] bytes = digest.digest();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static class Entry {
+
+        private final String hash;
+        private final SquidFileResult result;
+
+        Entry(String hash, SquidFileResult result) {
+            this.hash = hash;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.BatchExtension;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.resources.Resource;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the project input files by absolute path, relative path and base name, shared by all sensors.
+ *
+ * Report parsers resolve the same files over and over: evaluating a file system predicate for each of these
+ * lookups is much slower than a map access. The index is built on first use and is safe to query concurrently.
+ */
+public class SwiftFileIndex implements BatchExtension {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SwiftFileIndex.class);
+
+    private final FileSystem fileSystem;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private volatile Index index;
+    private final Map<InputFile, Resource> resources = Collections.synchronizedMap(Maps.<InputFile, Resource>newHashMap());
+
+    public SwiftFileIndex(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    /**
+     * Resolves a path, either absolute or relative to the project base directory.
+     */
+    @Nullable
+    public InputFile inputFile(String path) {
+
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(fileSystem.baseDir(), path);
+        }
+        return inputFileByAbsolutePath(file.getPath());
+    }
+
+    @Nullable
+    public InputFile inputFileByAbsolutePath(String absolutePath) {
+
+        return count(index().byAbsolutePath.get(normalizeAbsolutePath(absolutePath)));
+    }
+
+    @Nullable
+    public InputFile inputFileByRelativePath(String relativePath) {
+
+        return count(index().byRelativePath.get(normalize(relativePath)));
+    }
+
+    /**
+     * Files having this name, in the order of their relative paths.
+     */
+    public List<InputFile> inputFilesByBaseName(String baseName) {
+
+        List<InputFile> inputFiles = index().byBaseName.get(baseName);
+        if (inputFiles == null) {
+            misses.incrementAndGet();
+            return Collections.emptyList();
+        }
+        hits.incrementAndGet();
+        return inputFiles;
+    }
+
+    @Nullable
+    public Resource resource(SensorContext context, InputFile inputFile) {
+
+        Resource resource = resources.get(inputFile);
+        if (resource == null) {
+            resource = context.getResource(inputFile);
+            if (resource != null) {
+                resources.put(inputFile, resource);
+            }
+        }
+        return resource;
+    }
+
+    public void logStatistics() {
+
+        LOGGER.debug("Swift file index: {} hits, {} misses", hits.get(), misses.get());
+    }
+
+    private InputFile count(@Nullable InputFile inputFile) {
+
+        if (inputFile == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return inputFile;
+    }
+
+    private Index index() {
+
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new Index(fileSystem.inputFiles(fileSystem.predicates().all()));
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String normalizeAbsolutePath(String path) {
+
+        return normalize(new File(path).getAbsolutePath());
+    }
+
+    private static String normalize(String path) {
+
+        String normalized = FilenameUtils.normalize(path, true);
+        return normalized == null ? FilenameUtils.separatorsToUnix(path) : normalized;
+    }
+
+    private static class Index {
+
+        private final Map<String, InputFile> byAbsolutePath = Maps.newHashMap();
+        private final Map<String, InputFile> byRelativePath = Maps.newHashMap();
+        private final Map<String, List<InputFile>> byBaseName = Maps.newHashMap();
+
+        Index(Iterable<InputFile> inputFiles) {
+
+            Map<String, List<InputFile>> baseNames = Maps.newHashMap();
+            for (InputFile inputFile : inputFiles) {
+                byAbsolutePath.put(normalizeAbsolutePath(inputFile.absolutePath()), inputFile);
+                byRelativePath.put(normalize(inputFile.relativePath()), inputFile);
+
+                String baseName = inputFile.file().getName();
+                List<InputFile> sameName = baseNames.get(baseName);
+                if (sameName == null) {
+                    sameName = Lists.newArrayList();
+                    baseNames.put(baseName, sameName);
+                }
+                sameName.add(inputFile);
+            }
+
+            for (Map.Entry<String, List<InputFile>> entry : baseNames.entrySet()) {
+                List<InputFile> sameName = entry.getValue();
+                Collections.sort(sameName, new Comparator<InputFile>() {
+                    @Override
+                    public int compare(InputFile f1, InputFile f2) {
+                        return f1.relativePath().compareTo(f2.relativePath());
+                    }
+                });
+                byBaseName.put(entry.getKey(), ImmutableList.copyOf(sameName));
+            }
+
+            LOGGER.debug("Swift file index built with {} files", byAbsolutePath.size());
+        }
+    }
+}
@@ -23,11 +23,15 @@ import java.util.List;
 
 import org.sonar.api.Properties;
 import org.sonar.api.Property;
+import org.sonar.api.PropertyType;
 import org.sonar.api.SonarPlugin;
 import org.sonar.plugins.swift.colorizer.SwiftCodeColorizerFormat;
 import org.sonar.plugins.swift.complexity.LizardSensor;
+import org.sonar.plugins.swift.coverage.LlvmCovSensor;
 import org.sonar.plugins.swift.coverage.SwiftCoberturaSensor;
 import org.sonar.plugins.swift.cpd.SwiftCpdMapping;
+import org.sonar.plugins.swift.cpd.SwiftTokenStore;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
 import org.sonar.plugins.swift.issues.SwiftProfile;
 import org.sonar.plugins.swift.issues.swiftlint.SwiftLintProfile;
 import org.sonar.plugins.swift.issues.swiftlint.SwiftLintProfileImporter;
@@ -39,6 +43,7 @@ import org.sonar.plugins.swift.issues.tailor.TailorRulesDefinition;
 import org.sonar.plugins.swift.issues.tailor.TailorSensor;
 import org.sonar.plugins.swift.lang.core.Swift;
 import org.sonar.plugins.swift.tests.SwiftSurefireSensor;
+import org.sonar.plugins.swift.tests.XcresultSensor;
 
 import com.google.common.collect.ImmutableList;
 
@@ -50,25 +55,80 @@ import com.google.common.collect.ImmutableList;
                 description = "Relative to projects' root. Ant patterns are accepted",
                 global = false,
                 project = true),
+        @Property(
+                key = LlvmCovSensor.REPORT_PATTERN_KEY,
+                defaultValue = LlvmCovSensor.DEFAULT_REPORT_PATTERN,
+                name = "Path to llvm-cov JSON coverage report(s)",
+                description = "Relative to projects' root. Ant patterns are accepted. Reports are written by llvm-cov export. When they are found, the Cobertura reports are ignored.",
+                global = false,
+                project = true),
+        @Property(
+                key = SwiftCoberturaSensor.MERGE_KEY,
+                defaultValue = SwiftCoberturaSensor.DEFAULT_MERGE,
+                name = "Merge coverage reports",
+                description = "Parses all coverage reports concurrently and saves the merged coverage of each file once: hits are summed, conditions keep the best coverage.",
+                type = PropertyType.BOOLEAN,
+                global = false,
+                project = true),
+        @Property(
+                key = SwiftCoberturaSensor.CACHE_PATH_KEY,
+                name = "Path to the coverage cache directory",
+                description = "Relative to projects' root. When set, the coverage of each Cobertura or llvm-cov report is kept in a binary file of this directory and read back instead of the report while the report does not change.",
+                global = false,
+                project = true),
         @Property(
                 key = SwiftLintSensor.REPORT_PATH_KEY,
                 defaultValue = SwiftLintSensor.DEFAULT_REPORT_PATH,
                 name = "Path to SwiftLint report",
-                description = "Relative to projects' root.",
+                description = "Relative to projects' root. Reports ending with .json are read as the output of the SwiftLint json reporter.",
                 global = false,
                 project = true),
         @Property(
                 key = TailorSensor.REPORT_PATH_KEY,
                 defaultValue = TailorSensor.DEFAULT_REPORT_PATH,
                 name = "Path to Tailor report",
-                description = "Relative to projects' root.",
+                description = "Relative to projects' root. Reports ending with .json are read as the output of the Tailor json formatter.",
+                global = false,
+                project = true),
+        @Property(
+                key = ExternalIssueReports.THREADS_KEY,
+                defaultValue = ExternalIssueReports.DEFAULT_THREADS,
+                name = "Number of threads used to parse SwiftLint, Tailor, JUnit and merged coverage reports",
+                description = "0 uses one thread per available processor. Issues, test results and coverage are always saved from a single thread.",
+                global = true,
+                project = true),
+        @Property(
+                key = XcresultSensor.REPORT_PATTERN_KEY,
+                name = "Path to xcresult test summaries",
+                description = "Relative to projects' root. Ant patterns are accepted. JSON exported by xcresulttool from the test summaries of an xcresult bundle, and from its invocation record for the failure messages. When set, JUnit reports are not imported.",
                 global = false,
                 project = true),
+        @Property(
+                key = SwiftSurefireSensor.STACK_TRACE_MAX_BYTES_KEY,
+                defaultValue = SwiftSurefireSensor.DEFAULT_STACK_TRACE_MAX_BYTES,
+                name = "Maximum size of the stack trace of a failed test",
+                description = "In bytes, stack traces of the test details are cut beyond. 0 keeps them whole.",
+                type = PropertyType.INTEGER,
+                global = true,
+                project = true),
         @Property(
                 key = LizardSensor.REPORT_PATH_KEY,
                 defaultValue = LizardSensor.DEFAULT_REPORT_PATH,
                 name = "Path to lizard report",
-                description = "Relative to projects' root.",
+                description = "Relative to projects' root. Optional: when there is no report, complexity is computed by the plugin.",
+                global = false,
+                project = true),
+        @Property(
+                key = SwiftSquidSensor.THREADS_KEY,
+                defaultValue = SwiftSquidSensor.DEFAULT_THREADS,
+                name = "Number of threads used to scan Swift files",
+                description = "0 uses one thread per available processor.",
+                global = true,
+                project = true),
+        @Property(
+                key = SwiftSquidSensor.CACHE_PATH_KEY,
+                name = "Path to the squid analysis cache",
+                description = "Relative to projects' root. When set, measures of files whose content did not change since the previous analysis are read from this file instead of being computed again.",
                 global = false,
                 project = true)
 })
@@ -92,6 +152,9 @@ public class SwiftPlugin extends SonarPlugin {
                 Swift.class,
                 SwiftProfile.class,
 
+                // input files lookup shared by sensors
+                SwiftFileIndex.class,
+
                 // SwiftLint rules
                 SwiftLintSensor.class,
                 SwiftLintRulesDefinition.class,
@@ -110,13 +173,16 @@ public class SwiftPlugin extends SonarPlugin {
 
                 // duplications search
                 SwiftCpdMapping.class,
+                SwiftTokenStore.class,
 
                 // code
                 SwiftSquidSensor.class,
 
                 // tests
                 SwiftSurefireSensor.class,
+                XcresultSensor.class,
                 SwiftCoberturaSensor.class,
+                LlvmCovSensor.class,
 
                 // complexity
                 LizardSensor.class,
@@ -21,6 +21,9 @@ package org.sonar.plugins.swift;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FilePredicate;
@@ -29,13 +32,19 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.Settings;
 import org.sonar.api.issue.Issuable;
 import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.PersistenceMode;
+import org.sonar.api.measures.RangeDistributionBuilder;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.plugins.swift.complexity.LizardSensor;
+import org.sonar.plugins.swift.cpd.SwiftTokenStore;
+import org.sonar.plugins.swift.cpd.SwiftTokenStoreVisitor;
 import org.sonar.plugins.swift.lang.SwiftAstScanner;
 import org.sonar.plugins.swift.lang.SwiftConfiguration;
 import org.sonar.plugins.swift.lang.api.SwiftGrammar;
@@ -47,35 +56,66 @@ import org.sonar.squidbridge.SquidAstVisitor;
 import org.sonar.squidbridge.api.CheckMessage;
 import org.sonar.squidbridge.api.SourceCode;
 import org.sonar.squidbridge.api.SourceFile;
+import org.sonar.squidbridge.api.SourceFunction;
 import org.sonar.squidbridge.checks.SquidCheck;
 import org.sonar.squidbridge.indexer.QueryByType;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class SwiftSquidSensor implements Sensor {
 
+    public static final String THREADS_KEY = SwiftPlugin.PROPERTY_PREFIX + ".squid.threads";
+    public static final String DEFAULT_THREADS = "0";
+    public static final String CACHE_PATH_KEY = SwiftPlugin.PROPERTY_PREFIX + ".squid.cache";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SwiftSquidSensor.class);
+
+    // Each worker gets several partitions so that a few big files do not leave the other threads idle
+    private static final int PARTITIONS_PER_THREAD = 4;
+
     private final Number[] FUNCTIONS_DISTRIB_BOTTOM_LIMITS = {1, 2, 4, 6, 8, 10, 12, 20, 30};
     private final Number[] FILES_DISTRIB_BOTTOM_LIMITS = {0, 5, 10, 20, 30, 60, 90};
 
     private final FileSystem fileSystem;
+    private final Settings settings;
     private final PathResolver pathResolver;
     private final ResourcePerspectives resourcePerspectives;
+    private final SwiftTokenStore tokenStore;
+    private final SwiftFileIndex fileIndex;
     private final Checks<SquidCheck<SwiftGrammar>> checks;
     private final FilePredicate mainFilePredicates;
 
     private Project project;
     private SensorContext context;
     private AstScanner<SwiftGrammar> scanner;
+    private boolean saveComplexity;
+
+    public SwiftSquidSensor(RulesProfile profile, FileSystem fileSystem, Settings settings, PathResolver pathResolver, ResourcePerspectives resourcePerspectives, CheckFactory checkFactory, SwiftTokenStore tokenStore, SwiftFileIndex fileIndex) {
+
+        this(fileSystem, settings, pathResolver, resourcePerspectives, checkFactory, CheckList.getChecks(), tokenStore, fileIndex);
+    }
 
-    public SwiftSquidSensor(RulesProfile profile, FileSystem fileSystem, PathResolver pathResolver, ResourcePerspectives resourcePerspectives, CheckFactory checkFactory) {
+    SwiftSquidSensor(FileSystem fileSystem, Settings settings, PathResolver pathResolver, ResourcePerspectives resourcePerspectives, CheckFactory checkFactory, List<Class> checkClasses, SwiftTokenStore tokenStore, SwiftFileIndex fileIndex) {
 
         this.fileSystem = fileSystem;
+        this.settings = settings;
         this.pathResolver = pathResolver;
         this.resourcePerspectives = resourcePerspectives;
-        this.checks = checkFactory.<SquidCheck<SwiftGrammar>>create(CheckList.REPOSITORY_KEY).addAnnotatedChecks(CheckList.getChecks());
+        this.tokenStore = tokenStore;
+        this.fileIndex = fileIndex;
+        this.checks = checkFactory.<SquidCheck<SwiftGrammar>>create(CheckList.REPOSITORY_KEY).addAnnotatedChecks(checkClasses);
         this.mainFilePredicates = fileSystem.predicates().and(fileSystem.predicates().hasLanguage(Swift.KEY), fileSystem.predicates().hasType(InputFile.Type.MAIN));
     }
 
@@ -89,14 +129,164 @@ public class SwiftSquidSensor implements Sensor {
         this.project = project;
         this.context = context;
 
+        // The Lizard sensor saves the complexity measures when its report is there
+        saveComplexity = !LizardSensor.hasReport(fileSystem, settings);
+        if (!saveComplexity) {
+            LOGGER.info("Lizard report found, complexity measures are read from it");
+        }
+
+        List<File> files = ImmutableList.copyOf(fileSystem.files(mainFilePredicates));
+        List<SquidFileResult> results = Lists.newArrayList();
+        List<File> filesToScan = files;
+
+        SquidResultCache cache = openCache();
+        if (cache != null) {
+            filesToScan = Lists.newArrayList();
+            for (File file : files) {
+                SquidFileResult cached = getCachedResult(cache, file);
+                if (cached != null) {
+                    results.add(cached);
+                } else {
+                    filesToScan.add(file);
+                }
+            }
+            LOGGER.info("{} of {} Swift files unchanged since last analysis", results.size(), files.size());
+        }
+
+        for (SourceCode squidSourceFile : scanFiles(filesToScan)) {
+            SquidFileResult result = toResult((SourceFile) squidSourceFile);
+            results.add(result);
+            if (cache != null) {
+                cache.put(result);
+            }
+        }
+
+        if (cache != null) {
+            cache.save();
+        }
+
+        save(results);
+        fileIndex.logStatistics();
+    }
+
+    @Nullable
+    private SquidResultCache openCache() {
+
+        String cachePath = settings.getString(CACHE_PATH_KEY);
+        if (StringUtils.isBlank(cachePath)) {
+            return null;
+        }
+
+        File cacheFile = new File(cachePath);
+        if (!cacheFile.isAbsolute()) {
+            cacheFile = new File(fileSystem.baseDir(), cachePath);
+        }
+
+        // outside of the packaged plugin, different builds could not be told apart
+        String pluginVersion = SwiftPlugin.class.getPackage().getImplementationVersion();
+        if (pluginVersion == null) {
+            LOGGER.warn("Unknown plugin version, the squid cache {} is not used", cacheFile);
+            return null;
+        }
+
+        return SquidResultCache.load(cacheFile, cacheFingerprint(pluginVersion));
+    }
+
+    /**
+     * Anything that changes the computed measures or issues of an unchanged file must be part of the fingerprint.
+     */
+    private String cacheFingerprint(String pluginVersion) {
+
+        List<String> ruleKeys = Lists.newArrayList();
+        for (SquidCheck<SwiftGrammar> check : checks.all()) {
+            ruleKeys.add(checks.ruleKey(check).toString());
+        }
+        Collections.sort(ruleKeys);
+
+        return pluginVersion
+                + "|" + fileSystem.encoding().name()
+                + "|" + StringUtils.join(ruleKeys, ",");
+    }
+
+    @Nullable
+    private SquidFileResult getCachedResult(SquidResultCache cache, File file) {
+
+        try {
+            return cache.get(relativePath(file), file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read {}", file, e);
+            return null;
+        }
+    }
+
+    private Collection<SourceCode> scanFiles(List<File> files) {
+
+        int threads = threadCount(files.size());
+        if (threads <= 1) {
+            return scanPartition(files);
+        }
+
+        LOGGER.info("Scanning {} Swift files with {} threads", files.size(), threads);
+
+        int partitionSize = Math.max(1, (files.size() + threads * PARTITIONS_PER_THREAD - 1) / (threads * PARTITIONS_PER_THREAD));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Collection<SourceCode>>> futures = Lists.newArrayList();
+            for (final List<File> partition : Lists.partition(files, partitionSize)) {
+                futures.add(executor.submit(new Callable<Collection<SourceCode>>() {
+                    @Override
+                    public Collection<SourceCode> call() {
+                        return scanPartition(partition);
+                    }
+                }));
+            }
+
+            List<SourceCode> squidSourceFiles = Lists.newArrayList();
+            for (Future<Collection<SourceCode>> future : futures) {
+                squidSourceFiles.addAll(future.get());
+            }
+            return squidSourceFiles;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning Swift files", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to scan Swift files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scans a set of files with its own scanner, so that parser and visitor state is never shared between threads.
+     */
+    private Collection<SourceCode> scanPartition(List<File> files) {
+
         List<SquidAstVisitor<SwiftGrammar>> visitors = Lists.<SquidAstVisitor<SwiftGrammar>>newArrayList(checks.all());
+        // Tokens are kept for CPD, which would otherwise lex every file again
+        visitors.add(new SwiftTokenStoreVisitor(tokenStore));
         AstScanner<SwiftGrammar> scanner = SwiftAstScanner.create(createConfiguration(), visitors.toArray(new SquidAstVisitor[visitors.size()]));
 
+        scanner.scanFiles(files);
+
+        return scanner.getIndex().search(new QueryByType(SourceFile.class));
+    }
+
+    private int threadCount(int fileCount) {
+
+        // Check instances come from the CheckFactory and keep per-file state: they cannot be shared between workers
+        if (!checks.all().isEmpty()) {
+            LOGGER.debug("Active squid checks found, scanning Swift files on a single thread");
+            return 1;
+        }
 
-        scanner.scanFiles(ImmutableList.copyOf(fileSystem.files(mainFilePredicates)));
+        int threads = settings.getInt(THREADS_KEY);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
 
-        Collection<SourceCode> squidSourceFiles = scanner.getIndex().search(new QueryByType(SourceFile.class));
-        save(squidSourceFiles);
+        return Math.min(threads, fileCount);
     }
 
     private SwiftConfiguration createConfiguration() {
@@ -104,50 +294,124 @@ public class SwiftSquidSensor implements Sensor {
         return new SwiftConfiguration(fileSystem.encoding());
     }
 
-    private void save(Collection<SourceCode> squidSourceFiles) {
+    private String relativePath(File file) {
 
-        for (SourceCode squidSourceFile : squidSourceFiles) {
-            SourceFile squidFile = (SourceFile) squidSourceFile;
+        InputFile inputFile = fileIndex.inputFileByAbsolutePath(file.getPath());
+        return inputFile != null ? inputFile.relativePath() : pathResolver.relativePath(fileSystem.baseDir(), file);
+    }
 
-            String relativePath = pathResolver.relativePath(fileSystem.baseDir(), new java.io.File(squidFile.getKey()));
-            InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasRelativePath(relativePath));
+    private SquidFileResult toResult(SourceFile squidFile) {
 
-            saveMeasures(inputFile, squidFile);
-            saveIssues(inputFile, squidFile);
+        SquidFileResult result = new SquidFileResult(relativePath(new File(squidFile.getKey())));
+
+        result.setDouble(SwiftMetric.FILES, squidFile.getDouble(SwiftMetric.FILES));
+        result.setDouble(SwiftMetric.LINES, squidFile.getDouble(SwiftMetric.LINES));
+        result.setDouble(SwiftMetric.LINES_OF_CODE, squidFile.getDouble(SwiftMetric.LINES_OF_CODE));
+        result.setDouble(SwiftMetric.STATEMENTS, squidFile.getDouble(SwiftMetric.STATEMENTS));
+        result.setDouble(SwiftMetric.COMMENT_LINES, squidFile.getDouble(SwiftMetric.COMMENT_LINES));
+        result.setDouble(SwiftMetric.FUNCTIONS, squidFile.getDouble(SwiftMetric.FUNCTIONS));
+        result.setDouble(SwiftMetric.COMPLEXITY, squidFile.getDouble(SwiftMetric.COMPLEXITY));
+        addFunctionComplexities(squidFile, result);
+
+        Collection<CheckMessage> messages = squidFile.getCheckMessages();
+        if (messages != null) {
+            for (CheckMessage message : messages) {
+                RuleKey ruleKey = checks.ruleKey((SquidCheck<SwiftGrammar>) message.getCheck());
+                result.addIssue(new SquidFileResult.SquidIssue(ruleKey, message.getLine(), message.getText(Locale.ENGLISH), message.getCost()));
+            }
         }
+
+        return result;
     }
 
-    private void saveMeasures(InputFile inputFile, SourceFile squidFile) {
+    /**
+     * Functions hold the complexity of the functions nested in them: it is taken out, so that each point of
+     * complexity is counted once in the distribution.
+     */
+    private static void addFunctionComplexities(SourceCode parent, SquidFileResult result) {
 
-        context.saveMeasure(inputFile, CoreMetrics.FILES, squidFile.getDouble(SwiftMetric.FILES));
-        context.saveMeasure(inputFile, CoreMetrics.LINES, squidFile.getDouble(SwiftMetric.LINES));
-        context.saveMeasure(inputFile, CoreMetrics.NCLOC, squidFile.getDouble(SwiftMetric.LINES_OF_CODE));
-        //context.saveMeasure(inputFile, CoreMetrics.FUNCTIONS, squidFile.getDouble(SwiftMetric.FUNCTIONS));
-        context.saveMeasure(inputFile, CoreMetrics.STATEMENTS, squidFile.getDouble(SwiftMetric.STATEMENTS));
-        //context.saveMeasure(inputFile, CoreMetrics.COMPLEXITY, squidFile.getDouble(SwiftMetric.COMPLEXITY));
-        context.saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, squidFile.getDouble(SwiftMetric.COMMENT_LINES));
+        if (!parent.hasChildren()) {
+            return;
+        }
+        for (SourceCode child : parent.getChildren()) {
+            if (child.isType(SourceFunction.class)) {
+                result.addFunctionComplexity(child.getInt(SwiftMetric.COMPLEXITY) - nestedComplexity(child));
+            }
+            addFunctionComplexities(child, result);
+        }
+    }
 
+    private static int nestedComplexity(SourceCode function) {
+
+        int complexity = 0;
+        if (function.hasChildren()) {
+            for (SourceCode child : function.getChildren()) {
+                complexity += child.getInt(SwiftMetric.COMPLEXITY);
+            }
+        }
+        return complexity;
     }
 
-    private void saveIssues(InputFile inputFile, SourceFile squidFile) {
+    private void save(Collection<SquidFileResult> results) {
 
-        Collection<CheckMessage> messages = squidFile.getCheckMessages();
+        for (SquidFileResult result : results) {
+            InputFile inputFile = fileIndex.inputFileByRelativePath(result.getRelativePath());
 
-        Resource resource = context.getResource(inputFile);
+            saveMeasures(inputFile, result);
+            saveIssues(inputFile, result);
+        }
+    }
 
-        if (messages != null && resource != null) {
-            for (CheckMessage message : messages) {
-                RuleKey ruleKey = checks.ruleKey((SquidCheck<SwiftGrammar>) message.getCheck());
+    private void saveMeasures(InputFile inputFile, SquidFileResult result) {
+
+        context.saveMeasure(inputFile, CoreMetrics.FILES, result.getDouble(SwiftMetric.FILES));
+        context.saveMeasure(inputFile, CoreMetrics.LINES, result.getDouble(SwiftMetric.LINES));
+        context.saveMeasure(inputFile, CoreMetrics.NCLOC, result.getDouble(SwiftMetric.LINES_OF_CODE));
+        context.saveMeasure(inputFile, CoreMetrics.STATEMENTS, result.getDouble(SwiftMetric.STATEMENTS));
+        context.saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, result.getDouble(SwiftMetric.COMMENT_LINES));
+
+        if (saveComplexity) {
+            saveComplexityMeasures(inputFile, result);
+        }
+    }
+
+    private void saveComplexityMeasures(InputFile inputFile, SquidFileResult result) {
+
+        context.saveMeasure(inputFile, CoreMetrics.FUNCTIONS, result.getDouble(SwiftMetric.FUNCTIONS));
+        context.saveMeasure(inputFile, CoreMetrics.COMPLEXITY, result.getDouble(SwiftMetric.COMPLEXITY));
+
+        RangeDistributionBuilder functionDistribution = new RangeDistributionBuilder(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION, FUNCTIONS_DISTRIB_BOTTOM_LIMITS);
+        int complexityInFunctions = 0;
+        for (int complexity : result.getFunctionComplexities()) {
+            functionDistribution.add(complexity);
+            complexityInFunctions += complexity;
+        }
+        context.saveMeasure(inputFile, CoreMetrics.COMPLEXITY_IN_FUNCTIONS, (double) complexityInFunctions);
+        context.saveMeasure(inputFile, functionDistribution.build().setPersistenceMode(PersistenceMode.MEMORY));
+
+        RangeDistributionBuilder fileDistribution = new RangeDistributionBuilder(CoreMetrics.FILE_COMPLEXITY_DISTRIBUTION, FILES_DISTRIB_BOTTOM_LIMITS);
+        fileDistribution.add(result.getDouble(SwiftMetric.COMPLEXITY));
+        context.saveMeasure(inputFile, fileDistribution.build().setPersistenceMode(PersistenceMode.MEMORY));
+    }
+
+    private void saveIssues(InputFile inputFile, SquidFileResult result) {
+
+        List<SquidFileResult.SquidIssue> issues = result.getIssues();
+
+        Resource resource = fileIndex.resource(context, inputFile);
+
+        if (!issues.isEmpty() && resource != null) {
+            for (SquidFileResult.SquidIssue issue : issues) {
                 Issuable issuable = resourcePerspectives.as(Issuable.class, resource);
 
                 if (issuable != null) {
                     Issuable.IssueBuilder issueBuilder = issuable.newIssueBuilder()
-                            .ruleKey(ruleKey)
-                            .line(message.getLine())
-                            .message(message.getText(Locale.ENGLISH));
+                            .ruleKey(issue.getRuleKey())
+                            .line(issue.getLine())
+                            .message(issue.getMessage());
 
-                    if (message.getCost() != null) {
-                        issueBuilder.effortToFix(message.getCost());
+                    if (issue.getCost() != null) {
+                        issueBuilder.effortToFix(issue.getCost());
                     }
 
                     issuable.addIssue(issueBuilder.build());
@@ -27,6 +27,7 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.measures.Measure;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
+import org.sonar.plugins.swift.SwiftFileIndex;
 
 import java.io.File;
 import java.util.List;
@@ -38,11 +39,13 @@ public class LizardMeasurePersistor {
     private Project project;
     private SensorContext sensorContext;
     private FileSystem fileSystem;
+    private SwiftFileIndex fileIndex;
 
-    public LizardMeasurePersistor(final Project p, final SensorContext c, FileSystem fileSystem) {
+    public LizardMeasurePersistor(final Project p, final SensorContext c, FileSystem fileSystem, SwiftFileIndex fileIndex) {
         this.project = p;
         this.sensorContext = c;
         this.fileSystem = fileSystem;
+        this.fileIndex = fileIndex;
     }
 
     public void saveMeasures(final Map<String, List<Measure>> measures) {
@@ -53,14 +56,14 @@ public class LizardMeasurePersistor {
 
         for (Map.Entry<String, List<Measure>> entry : measures.entrySet()) {
             File file = new File(fileSystem.baseDir(), entry.getKey());
-            InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasAbsolutePath(file.getAbsolutePath()));
+            InputFile inputFile = fileIndex.inputFileByAbsolutePath(file.getAbsolutePath());
 
             if (inputFile == null) {
                 LOGGER.warn("file not included in sonar {}", entry.getKey());
                 continue;
             }
 
-            Resource resource = sensorContext.getResource(inputFile);
+            Resource resource = fileIndex.resource(sensorContext, inputFile);
 
             if (resource != null) {
                 for (Measure measure : entry.getValue()) {
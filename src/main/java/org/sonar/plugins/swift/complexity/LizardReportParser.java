@@ -19,23 +19,17 @@
  */
 package org.sonar.plugins.swift.complexity;
 
+import org.codehaus.staxmate.in.SMHierarchicCursor;
+import org.codehaus.staxmate.in.SMInputCursor;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Measure;
 import org.sonar.api.measures.PersistenceMode;
 import org.sonar.api.measures.RangeDistributionBuilder;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import org.sonar.api.utils.StaxParser;
+
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -55,47 +49,35 @@ public class LizardReportParser {
     private static final String VALUE = "value";
     private static final int CYCLOMATIC_COMPLEXITY_INDEX = 2;
     private static final int FUNCTIONS_INDEX = 3;
+    private static final String FUNCTION_LOCATION_SEPARATOR = " at ";
 
+    /**
+     * Streams the report: only the measures and the function complexity aggregates of each file are kept in memory.
+     *
+     * @return measures by file name, or null if the report is missing or is not valid XML
+     */
     public Map<String, List<Measure>> parseReport(final File xmlFile) {
-        Map<String, List<Measure>> result = null;
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-        try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(xmlFile);
-            result = parseFile(document);
-        } catch (final FileNotFoundException e){
-            LoggerFactory.getLogger(getClass()).error("Lizard Report not found {}", xmlFile, e);
-        } catch (final IOException e) {
-            LoggerFactory.getLogger(getClass()).error("Error processing file named {}", xmlFile, e);
-        } catch (final ParserConfigurationException e) {
-            LoggerFactory.getLogger(getClass()).error("Error parsing file named {}", xmlFile, e);
-        } catch (final SAXException e) {
-            LoggerFactory.getLogger(getClass()).error("Error processing file named {}", xmlFile, e);
-        }
-
-        return result;
-    }
-
-    private Map<String, List<Measure>> parseFile(Document document) {
         final Map<String, List<Measure>> reportMeasures = new HashMap<String, List<Measure>>();
-        final List<SwiftFunction> functions = new ArrayList<SwiftFunction>();
+        final Map<String, FunctionsComplexity> functions = new HashMap<String, FunctionsComplexity>();
 
-        NodeList nodeList = document.getElementsByTagName(MEASURE);
+        if (!xmlFile.isFile()) {
+            LoggerFactory.getLogger(getClass()).error("Lizard Report not found {}", xmlFile);
+            return null;
+        }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node node = nodeList.item(i);
+        try {
+            StaxParser parser = new StaxParser(new StaxParser.XmlStreamHandler() {
 
-            if (node.getNodeType() == Node.ELEMENT_NODE) {
-                Element element = (Element) node;
-                if (element.getAttribute(MEASURE_TYPE).equalsIgnoreCase(FILE_MEASURE)) {
-                    NodeList itemList = element.getElementsByTagName(MEASURE_ITEM);
-                    addComplexityFileMeasures(itemList, reportMeasures);
-                } else if(element.getAttribute(MEASURE_TYPE).equalsIgnoreCase(FUNCTION_MEASURE)) {
-                    NodeList itemList = element.getElementsByTagName(MEASURE_ITEM);
-                    collectFunctions(itemList, functions);
+                @Override
+                public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
+                    rootCursor.advance();
+                    collectMeasures(rootCursor.childElementCursor(MEASURE), reportMeasures, functions);
                 }
-            }
+            });
+            parser.parse(xmlFile);
+        } catch (final XMLStreamException e) {
+            LoggerFactory.getLogger(getClass()).error("Error processing file named {}", xmlFile, e);
+            return null;
         }
 
         addComplexityFunctionMeasures(reportMeasures, functions);
@@ -103,23 +85,41 @@ public class LizardReportParser {
         return reportMeasures;
     }
 
-    private void addComplexityFileMeasures(NodeList itemList, Map<String, List<Measure>> reportMeasures){
-        for (int i = 0; i < itemList.getLength(); i++) {
-            Node item = itemList.item(i);
+    private void collectMeasures(SMInputCursor measure, Map<String, List<Measure>> reportMeasures, Map<String, FunctionsComplexity> functions) throws XMLStreamException {
+        while (measure.getNext() != null) {
+            String type = measure.getAttrValue(MEASURE_TYPE);
+            if (FILE_MEASURE.equalsIgnoreCase(type)) {
+                addComplexityFileMeasures(measure.childElementCursor(MEASURE_ITEM), reportMeasures);
+            } else if (FUNCTION_MEASURE.equalsIgnoreCase(type)) {
+                collectFunctions(measure.childElementCursor(MEASURE_ITEM), functions);
+            }
+        }
+    }
 
-            if (item.getNodeType() == Node.ELEMENT_NODE) {
-                Element itemElement = (Element) item;
-                String fileName = itemElement.getAttribute(NAME);
-                NodeList values = itemElement.getElementsByTagName(VALUE);
-                int complexity = Integer.parseInt(values.item(CYCLOMATIC_COMPLEXITY_INDEX).getTextContent());
-                double fileComplexity = Double.parseDouble(values.item(CYCLOMATIC_COMPLEXITY_INDEX).getTextContent());
-                int numberOfFunctions =  Integer.parseInt(values.item(FUNCTIONS_INDEX).getTextContent());
+    private void addComplexityFileMeasures(SMInputCursor item, Map<String, List<Measure>> reportMeasures) throws XMLStreamException {
+        while (item.getNext() != null) {
+            String fileName = item.getAttrValue(NAME);
+            String[] values = readValues(item, FUNCTIONS_INDEX + 1);
+            int complexity = Integer.parseInt(values[CYCLOMATIC_COMPLEXITY_INDEX]);
+            double fileComplexity = Double.parseDouble(values[CYCLOMATIC_COMPLEXITY_INDEX]);
+            int numberOfFunctions = Integer.parseInt(values[FUNCTIONS_INDEX]);
 
-                reportMeasures.put(fileName, buildMeasureList(complexity, fileComplexity, numberOfFunctions));
-            }
+            reportMeasures.put(fileName, buildMeasureList(complexity, fileComplexity, numberOfFunctions));
         }
     }
 
+    /**
+     * Reads the text of the first value elements of an item.
+     */
+    private static String[] readValues(SMInputCursor item, int count) throws XMLStreamException {
+        String[] values = new String[count];
+        SMInputCursor value = item.childElementCursor(VALUE);
+        for (int i = 0; i < count && value.getNext() != null; i++) {
+            values[i] = value.collectDescendantText(false).trim();
+        }
+        return values;
+    }
+
     private List<Measure> buildMeasureList(int complexity, double fileComplexity, int numberOfFunctions){
         List<Measure> list = new ArrayList<Measure>();
         list.add(new Measure(CoreMetrics.COMPLEXITY).setIntValue(complexity));
@@ -131,34 +131,43 @@ public class LizardReportParser {
         return list;
     }
 
-    private void collectFunctions(NodeList itemList, List<SwiftFunction> functions) {
-        for (int i = 0; i < itemList.getLength(); i++) {
-            Node item = itemList.item(i);
-            if (item.getNodeType() == Node.ELEMENT_NODE) {
-                Element itemElement = (Element) item;
-                String name = itemElement.getAttribute(NAME);
-                String measure = itemElement.getElementsByTagName(VALUE).item(CYCLOMATIC_COMPLEXITY_INDEX).getTextContent();
-                functions.add(new SwiftFunction(name, Integer.parseInt(measure)));
+    private void collectFunctions(SMInputCursor item, Map<String, FunctionsComplexity> functions) throws XMLStreamException {
+        while (item.getNext() != null) {
+            String fileName = functionFileName(item.getAttrValue(NAME));
+            if (fileName == null) {
+                continue;
             }
+
+            String measure = readValues(item, CYCLOMATIC_COMPLEXITY_INDEX + 1)[CYCLOMATIC_COMPLEXITY_INDEX];
+            FunctionsComplexity fileFunctions = functions.get(fileName);
+            if (fileFunctions == null) {
+                fileFunctions = new FunctionsComplexity();
+                functions.put(fileName, fileFunctions);
+            }
+            fileFunctions.add(Integer.parseInt(measure));
         }
     }
 
-    private void addComplexityFunctionMeasures(Map<String, List<Measure>> reportMeasures, List<SwiftFunction> functions){
-        for (Map.Entry<String, List<Measure>> entry : reportMeasures.entrySet()) {
+    /**
+     * Extracts the file of a function item named like "viewDidLoad(...) at App/Controller/ViewController.swift:105".
+     */
+    static String functionFileName(String functionName) {
+        int start = functionName.lastIndexOf(FUNCTION_LOCATION_SEPARATOR);
+        if (start < 0) {
+            return null;
+        }
+        start += FUNCTION_LOCATION_SEPARATOR.length();
 
-            RangeDistributionBuilder complexityDistribution = new RangeDistributionBuilder(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION, FUNCTIONS_DISTRIB_BOTTOM_LIMITS);
-            int count = 0;
-            int complexityInFunctions = 0;
+        int end = functionName.lastIndexOf(':');
+        return end > start ? functionName.substring(start, end) : functionName.substring(start);
+    }
 
-            for (SwiftFunction func : functions) {
-                if (func.getName().contains(entry.getKey())) {
-                    complexityDistribution.add(func.getCyclomaticComplexity());
-                    count++;
-                    complexityInFunctions += func.getCyclomaticComplexity();
-                }
-            }
+    private void addComplexityFunctionMeasures(Map<String, List<Measure>> reportMeasures, Map<String, FunctionsComplexity> functions){
+        for (Map.Entry<String, List<Measure>> entry : reportMeasures.entrySet()) {
+
+            FunctionsComplexity fileFunctions = functions.get(entry.getKey());
 
-            if (count != 0) {
+            if (fileFunctions != null) {
                 double complex = 0;
                 for (Measure m : entry.getValue()){
                     if (m.getMetric().getKey().equalsIgnoreCase(CoreMetrics.FILE_COMPLEXITY.getKey())){
@@ -167,8 +176,8 @@ public class LizardReportParser {
                     }
                 }
 
-                double complexMean = complex/(double)count;
-                entry.getValue().addAll(buildFuncionMeasuresList(complexMean, complexityInFunctions, complexityDistribution));
+                double complexMean = complex/(double)fileFunctions.count;
+                entry.getValue().addAll(buildFuncionMeasuresList(complexMean, fileFunctions.complexity, fileFunctions.distribution));
             }
         }
     }
@@ -181,22 +190,18 @@ public class LizardReportParser {
         return list;
     }
 
-    private class SwiftFunction {
-        private String name;
-        private int cyclomaticComplexity;
-
-        public SwiftFunction(String name, int cyclomaticComplexity) {
-            this.name = name;
-            this.cyclomaticComplexity = cyclomaticComplexity;
-        }
-
-        public String getName() {
-            return name;
-        }
-
-        public int getCyclomaticComplexity() {
-            return cyclomaticComplexity;
+    /**
+     * Complexity of the functions of a file.
+     */
+    private class FunctionsComplexity {
+        private final RangeDistributionBuilder distribution = new RangeDistributionBuilder(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION, FUNCTIONS_DISTRIB_BOTTOM_LIMITS);
+        private int count;
+        private int complexity;
+
+        public void add(int cyclomaticComplexity) {
+            distribution.add(cyclomaticComplexity);
+            count++;
+            complexity += cyclomaticComplexity;
         }
-
     }
 }
@@ -27,6 +27,7 @@ import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.config.Settings;
 import org.sonar.api.measures.Measure;
 import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
 import org.sonar.plugins.swift.SwiftPlugin;
 import org.sonar.plugins.swift.lang.core.Swift;
 
@@ -42,38 +43,41 @@ public class LizardSensor implements Sensor {
 
     private final Settings conf;
     private final FileSystem fileSystem;
+    private final SwiftFileIndex fileIndex;
 
-    public LizardSensor(final FileSystem moduleFileSystem, final Settings config) {
+    public LizardSensor(final FileSystem moduleFileSystem, final Settings config, final SwiftFileIndex fileIndex) {
         this.conf = config;
         this.fileSystem = moduleFileSystem;
+        this.fileIndex = fileIndex;
     }
 
+    /**
+     * Lizard is optional: complexity is computed by the squid sensor, unless a Lizard report is there.
+     */
     @Override
     public boolean shouldExecuteOnProject(Project project) {
-        return project.isRoot() && fileSystem.languages().contains(Swift.KEY);
+        return project.isRoot() && fileSystem.languages().contains(Swift.KEY) && hasReport(fileSystem, conf);
+    }
+
+    public static boolean hasReport(FileSystem fileSystem, Settings settings) {
+        return reportFile(fileSystem, settings).isFile();
     }
 
     @Override
     public void analyse(Project project, SensorContext sensorContext) {
 
-        final String projectBaseDir = fileSystem.baseDir().getPath();
-        Map<String, List<Measure>> measures = parseReportsIn(projectBaseDir, new LizardReportParser());
-        LoggerFactory.getLogger(getClass()).info("Saving results of complexity analysis");
-        new LizardMeasurePersistor(project, sensorContext, fileSystem).saveMeasures(measures);
-    }
-
-    private Map<String, List<Measure>> parseReportsIn(final String baseDir, LizardReportParser parser) {
-        final StringBuilder reportFileName = new StringBuilder(baseDir);
-        reportFileName.append("/").append(reportPath());
         LoggerFactory.getLogger(getClass()).info("Processing complexity report ");
-        return parser.parseReport(new File(reportFileName.toString()));
+        Map<String, List<Measure>> measures = new LizardReportParser().parseReport(reportFile(fileSystem, conf));
+        LoggerFactory.getLogger(getClass()).info("Saving results of complexity analysis");
+        new LizardMeasurePersistor(project, sensorContext, fileSystem, fileIndex).saveMeasures(measures);
+        fileIndex.logStatistics();
     }
 
-    private String reportPath() {
-        String reportPath = conf.getString(REPORT_PATH_KEY);
+    private static File reportFile(FileSystem fileSystem, Settings settings) {
+        String reportPath = settings.getString(REPORT_PATH_KEY);
         if (reportPath == null) {
             reportPath = DEFAULT_REPORT_PATH;
         }
-        return reportPath;
+        return new File(fileSystem.baseDir(), reportPath);
     }
 }
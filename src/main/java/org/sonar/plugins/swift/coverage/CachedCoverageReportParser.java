@@ -0,0 +1,317 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Settings;
+
+import javax.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the coverage parsed from each report in a compact binary file, read back instead of the report as long as
+ * the report has the same size and modification time.
+ *
+ * A cache file holds a header (magic, version, size and modification time of the report, payload length and checksum)
+ * followed by one entry per file: its path, then the covered lines and the lines with branches. Line numbers are delta encoded and
+ * all numbers are written as variable length integers, so most of them take a single byte.
+ */
+final class CachedCoverageReportParser implements CoverageReportParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachedCoverageReportParser.class);
+
+    private static final int MAGIC = 0x53574343;
+    private static final int FORMAT_VERSION = 2;
+    // magic, version, report length, report modification time, payload length, payload checksum
+    private static final int HEADER_LENGTH = 4 + 4 + 8 + 8 + 8 + 8;
+
+    private final CoverageReportParser parser;
+    private final File cacheDir;
+
+    CachedCoverageReportParser(CoverageReportParser parser, File cacheDir) {
+        this.parser = parser;
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @return the parser itself when no cache directory is configured
+     */
+    static CoverageReportParser withCache(CoverageReportParser parser, Settings settings, File baseDir) {
+        String path = settings.getString(SwiftCoberturaSensor.CACHE_PATH_KEY);
+        if (StringUtils.isBlank(path)) {
+            return parser;
+        }
+        File cacheDir = new File(path);
+        if (!cacheDir.isAbsolute()) {
+            cacheDir = new File(baseDir, path);
+        }
+        return new CachedCoverageReportParser(parser, cacheDir);
+    }
+
+    @Override
+    public void parseReport(File report, CoverageSink sink) {
+        File cacheFile = cacheFile(report);
+
+        if (cacheFile.isFile()) {
+            try {
+                if (read(cacheFile, report, sink)) {
+                    LOGGER.info("Coverage of {} read from cache {}", report.getName(), cacheFile);
+                    return;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read coverage cache {}, the report will be parsed", cacheFile, e);
+            }
+        }
+
+        // a failed parse throws before anything is saved, partial coverage is never cached
+        CacheWriter writer = new CacheWriter(sink);
+        parser.parseReport(report, writer);
+        try {
+            writer.save(cacheFile, report);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write coverage cache {}", cacheFile, e);
+        }
+    }
+
+    private File cacheFile(File report) {
+        String path = report.getAbsolutePath();
+        return new File(cacheDir, report.getName() + "-" + Integer.toHexString(path.hashCode()) + ".bin");
+    }
+
+    /**
+     * @return false when the cache does not match the report
+     */
+    private static boolean read(File cacheFile, File report, CoverageSink sink) throws IOException {
+        Map<String, LineCoverage> coverageByFile = decode(cacheFile, report);
+        if (coverageByFile == null) {
+            return false;
+        }
+        // handed over only once the whole cache is decoded, a report parsed after a failure is not delivered twice
+        for (Map.Entry<String, LineCoverage> entry : coverageByFile.entrySet()) {
+            sink.accept(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    @Nullable
+    private static Map<String, LineCoverage> decode(File cacheFile, File report) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(cacheFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() < HEADER_LENGTH) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || buffer.getLong() != report.length() || buffer.getLong() != report.lastModified()
+                    || buffer.getLong() != buffer.remaining() - 8) {
+                return null;
+            }
+            long checksum = buffer.getLong();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != checksum) {
+                throw new IOException("Corrupted coverage cache " + cacheFile);
+            }
+
+            Map<String, LineCoverage> coverageByFile = Maps.newLinkedHashMap();
+            buffer = ByteBuffer.wrap(payload);
+            while (buffer.get() != 0) {
+                String filePath = readString(buffer);
+                LineCoverage coverage = new LineCoverage();
+
+                int line = 0;
+                for (int lines = readVarInt(buffer); lines > 0; lines--) {
+                    line += readVarInt(buffer);
+                    coverage.setHits(line, readVarInt(buffer));
+                }
+                line = 0;
+                for (int lines = readVarInt(buffer); lines > 0; lines--) {
+                    line += readVarInt(buffer);
+                    coverage.setConditions(line, readVarInt(buffer), readVarInt(buffer));
+                }
+
+                coverageByFile.put(filePath, coverage);
+            }
+            return coverageByFile;
+
+        } catch (RuntimeException e) {
+            // buffer underflow, invalid length or line number: the checksum missed a corruption
+            throw new IOException("Invalid coverage cache " + cacheFile, e);
+        } finally {
+            IOUtils.closeQuietly(file);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Encodes the coverage of each file while handing it over to the sink.
+     */
+    private static final class CacheWriter implements CoverageSink {
+
+        private final CoverageSink sink;
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream(8192);
+
+        CacheWriter(CoverageSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(String filePath, LineCoverage coverage) {
+            payload.write(1);
+            byte[] path = filePath.getBytes(Charsets.UTF_8);
+            writeVarInt(payload, path.length);
+            payload.write(path, 0, path.length);
+
+            int lastLine = coverage.lastLine();
+            int count = 0;
+            for (int line = 0; line <= lastLine; line++) {
+                if (coverage.hits(line) >= 0) {
+                    count++;
+                }
+            }
+            writeVarInt(payload, count);
+            int previous = 0;
+            for (int line = 0; line <= lastLine; line++) {
+                if (coverage.hits(line) >= 0) {
+                    writeVarInt(payload, line - previous);
+                    writeVarInt(payload, coverage.hits(line));
+                    previous = line;
+                }
+            }
+
+            count = 0;
+            for (int line = 0; line <= lastLine; line++) {
+                if (coverage.conditions(line) >= 0) {
+                    count++;
+                }
+            }
+            writeVarInt(payload, count);
+            previous = 0;
+            for (int line = 0; line <= lastLine; line++) {
+                if (coverage.conditions(line) >= 0) {
+                    writeVarInt(payload, line - previous);
+                    writeVarInt(payload, coverage.conditions(line));
+                    writeVarInt(payload, coverage.coveredConditions(line));
+                    previous = line;
+                }
+            }
+
+            sink.accept(filePath, coverage);
+        }
+
+        void save(File cacheFile, File report) throws IOException {
+            payload.write(0);
+
+            File parent = cacheFile.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Unable to create directory " + parent);
+            }
+
+            File tmpFile = new File(cacheFile.getPath() + ".tmp");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            boolean written = false;
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(report.length());
+                out.writeLong(report.lastModified());
+                byte[] bytes = payload.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                out.writeLong(bytes.length);
+                out.writeLong(crc.getValue());
+                out.write(bytes);
+                out.close();
+                written = true;
+            } finally {
+                IOUtils.closeQuietly(out);
+                if (!written) {
+                    FileUtils.deleteQuietly(tmpFile);
+                }
+            }
+
+            if (cacheFile.exists() && !cacheFile.delete() || !tmpFile.renameTo(cacheFile)) {
+                throw new IOException("Unable to replace " + cacheFile);
+            }
+        }
+
+        private static void writeVarInt(OutputStream out, int value) {
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                writeByte(out, (remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            writeByte(out, remaining);
+        }
+
+        private static void writeByte(OutputStream out, int b) {
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                // ByteArrayOutputStream does not throw
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -21,18 +21,10 @@ package org.sonar.plugins.swift.coverage;
 
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
 import org.codehaus.staxmate.in.SMHierarchicCursor;
 import org.codehaus.staxmate.in.SMInputCursor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.sonar.api.batch.SensorContext;
-import org.sonar.api.batch.fs.FileSystem;
-import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.measures.CoverageMeasuresBuilder;
-import org.sonar.api.measures.Measure;
-import org.sonar.api.resources.Project;
-import org.sonar.api.resources.Resource;
 import org.sonar.api.utils.ParsingUtils;
 import org.sonar.api.utils.StaxParser;
 import org.sonar.api.utils.XmlParserException;
@@ -42,36 +34,23 @@ import java.io.File;
 import java.text.ParseException;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
-final class CoberturaReportParser {
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(CoberturaReportParser.class);
-
-    private final FileSystem fileSystem;
-    private final Project project;
-    private final SensorContext context;
-
-    private CoberturaReportParser(FileSystem fileSystem, Project project, SensorContext context) {
-        this.fileSystem = fileSystem;
-        this.project = project;
-        this.context = context;
-    }
+final class CoberturaReportParser implements CoverageReportParser {
 
     /**
-     * Parse a Cobertura xml report and create measures accordingly
+     * Parse a Cobertura xml report and hand the coverage of each file to the sink
      */
-    public static void parseReport(File xmlFile, FileSystem fileSystem, Project project, SensorContext context) {
-        new CoberturaReportParser(fileSystem, project, context).parse(xmlFile);
-    }
-
-    private void parse(File xmlFile) {
+    @Override
+    public void parseReport(File xmlFile, final CoverageSink sink) {
+        final Set<String> splitFiles = splitFiles(xmlFile);
         try {
             StaxParser parser = new StaxParser(new StaxParser.XmlStreamHandler() {
 
                 @Override
                 public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
                     rootCursor.advance();
-                    collectPackageMeasures(rootCursor.descendantElementCursor("package"));
+                    collectMeasures(rootCursor.descendantElementCursor("package"), splitFiles, sink);
                 }
             });
             parser.parse(xmlFile);
@@ -80,54 +59,85 @@ final class CoberturaReportParser {
         }
     }
 
-    private void collectPackageMeasures(SMInputCursor pack) throws XMLStreamException {
+    /**
+     * The coverage of a file is handed over as soon as the next class belongs to another file, so that a single file
+     * is held in memory. The few files whose classes are not next to each other are merged and handed over at the end.
+     */
+    private static void collectMeasures(SMInputCursor pack, Set<String> splitFiles, CoverageSink sink) throws XMLStreamException {
+        Map<String, LineCoverage> splitCoverage = Maps.newLinkedHashMap();
+        String currentFile = null;
+        LineCoverage coverage = null;
         while (pack.getNext() != null) {
-            Map<String, CoverageMeasuresBuilder> builderByFilename = Maps.newHashMap();
-            collectFileMeasures(pack.descendantElementCursor("class"), builderByFilename);
-            for (Map.Entry<String, CoverageMeasuresBuilder> entry : builderByFilename.entrySet()) {
-                String filePath = entry.getKey();
-                File file = new File(fileSystem.baseDir(), filePath);
-                InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasAbsolutePath(file.getAbsolutePath()));
-
-                if (inputFile == null) {
-                    LOGGER.warn("file not included in sonar {}", filePath);
+            SMInputCursor clazz = pack.descendantElementCursor("class");
+            while (clazz.getNext() != null) {
+                String fileName = clazz.getAttrValue("filename");
+                if (splitFiles.contains(fileName)) {
+                    LineCoverage merged = splitCoverage.get(fileName);
+                    if (merged == null) {
+                        merged = new LineCoverage();
+                        splitCoverage.put(fileName, merged);
+                    }
+                    collectFileData(clazz, merged);
                     continue;
                 }
-
-                Resource resource = context.getResource(inputFile);
-                if (resourceExists(resource)) {
-                    for (Measure measure : entry.getValue().createMeasures()) {
-                        context.saveMeasure(resource, measure);
+                if (!StringUtils.equals(fileName, currentFile)) {
+                    if (coverage != null) {
+                        sink.accept(currentFile, coverage);
                     }
+                    currentFile = fileName;
+                    coverage = new LineCoverage();
                 }
+                collectFileData(clazz, coverage);
             }
         }
+        if (coverage != null) {
+            sink.accept(currentFile, coverage);
+        }
+        for (Map.Entry<String, LineCoverage> entry : splitCoverage.entrySet()) {
+            sink.accept(entry.getKey(), entry.getValue());
+        }
     }
 
-    private boolean resourceExists(Resource file) {
-        return context.getResource(file) != null;
-    }
+    /**
+     * Reads the class file names only, to find the files whose classes are not next to each other.
+     */
+    private static Set<String> splitFiles(File xmlFile) {
+        final Set<String> splitFiles = Sets.newHashSet();
+        try {
+            new StaxParser(new StaxParser.XmlStreamHandler() {
 
-    private static void collectFileMeasures(SMInputCursor clazz,
-                                            Map<String, CoverageMeasuresBuilder> builderByFilename) throws XMLStreamException {
-        while (clazz.getNext() != null) {
-            String fileName = clazz.getAttrValue("filename");
-            CoverageMeasuresBuilder builder = builderByFilename.get(fileName);
-            if (builder == null) {
-                builder = CoverageMeasuresBuilder.create();
-                builderByFilename.put(fileName, builder);
-            }
-            collectFileData(clazz, builder);
+                @Override
+                public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
+                    Set<String> seenFiles = Sets.newHashSet();
+                    String previousFile = null;
+                    rootCursor.advance();
+                    SMInputCursor pack = rootCursor.descendantElementCursor("package");
+                    while (pack.getNext() != null) {
+                        // child cursors skip the lines
+                        SMInputCursor clazz = pack.childElementCursor("classes").advance().childElementCursor("class");
+                        while (clazz.getNext() != null) {
+                            String fileName = clazz.getAttrValue("filename");
+                            if (!StringUtils.equals(fileName, previousFile) && !seenFiles.add(fileName)) {
+                                splitFiles.add(fileName);
+                            }
+                            previousFile = fileName;
+                        }
+                    }
+                }
+            }).parse(xmlFile);
+        } catch (XMLStreamException e) {
+            // reported by the parse itself, once the coverage before the error is handed over
         }
+        return splitFiles;
     }
 
     private static void collectFileData(SMInputCursor clazz,
-                                        CoverageMeasuresBuilder builder) throws XMLStreamException {
+                                        LineCoverage coverage) throws XMLStreamException {
         SMInputCursor line = clazz.childElementCursor("lines").advance().childElementCursor("line");
         while (line.getNext() != null) {
             int lineId = Integer.parseInt(line.getAttrValue("number"));
             try {
-                builder.setHits(lineId, (int) ParsingUtils.parseNumber(line.getAttrValue("hits"), Locale.ENGLISH));
+                coverage.setHits(lineId, (int) ParsingUtils.parseNumber(line.getAttrValue("hits"), Locale.ENGLISH));
             } catch (ParseException e) {
                 throw new XmlParserException(e);
             }
@@ -136,7 +146,7 @@ final class CoberturaReportParser {
             String text = line.getAttrValue("condition-coverage");
             if (StringUtils.equals(isBranch, "true") && StringUtils.isNotBlank(text)) {
                 String[] conditions = StringUtils.split(StringUtils.substringBetween(text, "(", ")"), "/");
-                builder.setConditions(lineId, Integer.parseInt(conditions[1]), Integer.parseInt(conditions[0]));
+                coverage.setConditions(lineId, Integer.parseInt(conditions[1]), Integer.parseInt(conditions[0]));
             }
         }
     }
@@ -0,0 +1,86 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.resources.Resource;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Saves the coverage measures of each file as soon as it is received.
+ */
+final class CoverageMeasuresPersistor implements CoverageSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoverageMeasuresPersistor.class);
+
+    private final SwiftFileIndex fileIndex;
+    private final SensorContext context;
+
+    CoverageMeasuresPersistor(SwiftFileIndex fileIndex, SensorContext context) {
+        this.fileIndex = fileIndex;
+        this.context = context;
+    }
+
+    /**
+     * Reads the reports and saves their coverage, either report by report or merged when files may be covered by
+     * several reports. Merged reports are parsed with the given number of threads, 0 for one per processor.
+     */
+    void saveReports(List<File> reports, CoverageReportParser parser, boolean merge, int threads) {
+        if (merge) {
+            // A file covered by several reports gets its measures saved once, from the merged coverage
+            MergedCoverage mergedCoverage = new MergedCoverage(parser, fileIndex, threads);
+            mergedCoverage.parseReports(reports);
+            mergedCoverage.saveTo(this);
+        } else {
+            for (File report : reports) {
+                LOGGER.info("Processing coverage report {}", report);
+                parser.parseReport(report, this);
+            }
+        }
+    }
+
+    @Override
+    public void accept(String filePath, LineCoverage coverage) {
+        InputFile inputFile = fileIndex.inputFile(filePath);
+
+        if (inputFile == null) {
+            LOGGER.warn("file not included in sonar {}", filePath);
+            return;
+        }
+
+        Resource resource = fileIndex.resource(context, inputFile);
+        if (resourceExists(resource)) {
+            for (Measure measure : coverage.createMeasures()) {
+                context.saveMeasure(resource, measure);
+            }
+        }
+    }
+
+    private boolean resourceExists(Resource file) {
+        return context.getResource(file) != null;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import org.sonar.api.measures.CoverageMeasuresBuilder;
+import org.sonar.api.measures.Measure;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Line hits and branch conditions of one file, stored in int arrays indexed by line number.
+ *
+ * Like {@link CoverageMeasuresBuilder}, the first value set for a line is kept. Measures are only built when the
+ * coverage of the file is complete, so that per-line objects exist for a single file at a time.
+ */
+final class LineCoverage {
+
+    private static final int INITIAL_LINES = 256;
+    private static final int NONE = -1;
+
+    private int[] hits = newLines(INITIAL_LINES);
+    private int[] conditions = newLines(INITIAL_LINES);
+    private int[] coveredConditions = new int[INITIAL_LINES];
+    private int lastLine;
+
+    void setHits(int line, int count) {
+        ensureCapacity(line);
+        if (hits[line] == NONE) {
+            hits[line] = count;
+        }
+    }
+
+    void setConditions(int line, int count, int covered) {
+        ensureCapacity(line);
+        if (conditions[line] == NONE && count > 0) {
+            conditions[line] = count;
+            coveredConditions[line] = covered;
+        }
+    }
+
+    /**
+     * Adds conditions to a line, for reports that describe each branch of a line separately.
+     */
+    void addConditions(int line, int count, int covered) {
+        ensureCapacity(line);
+        if (conditions[line] == NONE) {
+            conditions[line] = count;
+            coveredConditions[line] = covered;
+        } else {
+            conditions[line] += count;
+            coveredConditions[line] += covered;
+        }
+    }
+
+    /**
+     * Adds the coverage of another report of the same file: hits are summed, conditions keep the best coverage.
+     */
+    void merge(LineCoverage other) {
+        ensureCapacity(other.lastLine);
+        for (int line = 0; line <= other.lastLine; line++) {
+            if (other.hits[line] != NONE) {
+                hits[line] = hits[line] == NONE ? other.hits[line] : hits[line] + other.hits[line];
+            }
+            if (other.conditions[line] != NONE) {
+                conditions[line] = Math.max(conditions[line], other.conditions[line]);
+                coveredConditions[line] = Math.max(coveredConditions[line], other.coveredConditions[line]);
+            }
+        }
+    }
+
+    int lastLine() {
+        return lastLine;
+    }
+
+    /**
+     * @return the hits of the line, or -1 when the line has no coverage data
+     */
+    int hits(int line) {
+        return hits[line];
+    }
+
+    /**
+     * @return the conditions of the line, or -1 when the line has no branch
+     */
+    int conditions(int line) {
+        return conditions[line];
+    }
+
+    int coveredConditions(int line) {
+        return coveredConditions[line];
+    }
+
+    Collection<Measure> createMeasures() {
+        CoverageMeasuresBuilder builder = CoverageMeasuresBuilder.create();
+        for (int line = 0; line <= lastLine; line++) {
+            if (hits[line] != NONE) {
+                builder.setHits(line, hits[line]);
+            }
+            if (conditions[line] != NONE) {
+                builder.setConditions(line, conditions[line], coveredConditions[line]);
+            }
+        }
+        return builder.createMeasures();
+    }
+
+    private void ensureCapacity(int line) {
+        if (line < 0) {
+            throw new IllegalArgumentException("Invalid line number: " + line);
+        }
+        if (line >= hits.length) {
+            int length = Math.max(hits.length * 2, line + 1);
+            hits = grow(hits, length, NONE);
+            conditions = grow(conditions, length, NONE);
+            coveredConditions = grow(coveredConditions, length, 0);
+        }
+        lastLine = Math.max(lastLine, line);
+    }
+
+    private static int[] newLines(int length) {
+        int[] lines = new int[length];
+        Arrays.fill(lines, NONE);
+        return lines;
+    }
+
+    private static int[] grow(int[] lines, int length, int fill) {
+        int[] grown = Arrays.copyOf(lines, length);
+        Arrays.fill(grown, lines.length, length, fill);
+        return grown;
+    }
+}
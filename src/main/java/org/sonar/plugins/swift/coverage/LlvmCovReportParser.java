@@ -0,0 +1,279 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.IOUtils;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the JSON written by {@code llvm-cov export}:
+ * <pre>{"data": [{"files": [{"branches": [[line, column, endLine, endColumn, trueCount, falseCount, ...]],
+ * "filename": "/path/File.swift", "segments": [[line, column, count, hasCount, isRegionEntry, isGapRegion]]}],
+ * "functions": [...]}]}</pre>
+ *
+ * The report is streamed: only the segments of the current file are kept, and line hits are computed from them the
+ * way {@code llvm-cov report} does. Branches of the functions section repeat those of the files and are ignored.
+ */
+final class LlvmCovReportParser implements CoverageReportParser {
+
+    @Override
+    public void parseReport(File report, CoverageSink sink) {
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(report), "UTF-8"));
+            new JSONParser().parse(reader, new ExportHandler(sink));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse llvm-cov report " + report, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Failed to parse llvm-cov report " + report, e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Follows the position in the document through the names of the enclosing entries, "[]" standing for arrays.
+     */
+    private static final class ExportHandler implements ContentHandler {
+
+        private static final String ARRAY = "[]";
+
+        // data / [] / files / [] is a file, data / [] / files / [] / segments / [] / [] a segment
+        private static final int FILE_DEPTH = 4;
+        private static final int FILE_ENTRY_DEPTH = 5;
+        private static final int TUPLE_DEPTH = 7;
+
+        private static final int BRANCH_LINE = 0;
+        private static final int BRANCH_TRUE_COUNT = 4;
+        private static final int BRANCH_FALSE_COUNT = 5;
+
+        private final CoverageSink sink;
+        private final List<String> path = Lists.newArrayList();
+
+        private final long[] tuple = new long[16];
+        private int tupleSize;
+
+        private String filename;
+        private FileSegments segments;
+        private LineCoverage coverage;
+
+        ExportHandler(CoverageSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startJSON() {
+            path.clear();
+        }
+
+        @Override
+        public void endJSON() {
+            // nothing to do
+        }
+
+        @Override
+        public boolean startObject() {
+            if (isFile()) {
+                filename = null;
+                segments = new FileSegments();
+                coverage = new LineCoverage();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            if (isFile() && coverage != null) {
+                if (filename != null) {
+                    segments.computeHits(coverage);
+                    sink.accept(filename, coverage);
+                }
+                segments = null;
+                coverage = null;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            path.add(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            path.remove(path.size() - 1);
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            path.add(ARRAY);
+            tupleSize = 0;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            if (path.size() == TUPLE_DEPTH && coverage != null) {
+                if (isIn("segments")) {
+                    addSegment();
+                } else if (isIn("branches")) {
+                    addBranch();
+                }
+            }
+            path.remove(path.size() - 1);
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if (path.size() == TUPLE_DEPTH) {
+                if (tupleSize < tuple.length) {
+                    tuple[tupleSize++] = toLong(value);
+                }
+            } else if (path.size() == FILE_ENTRY_DEPTH && isIn("filename") && value != null) {
+                filename = value.toString();
+            }
+            return true;
+        }
+
+        private void addSegment() {
+            // exports older than LLVM 7 have no gap region flag
+            if (tupleSize >= 5) {
+                segments.add((int) tuple[0], tuple[2], tuple[3] != 0, tuple[4] != 0, tupleSize > 5 && tuple[5] != 0);
+            }
+        }
+
+        private void addBranch() {
+            if (tupleSize > BRANCH_FALSE_COUNT) {
+                int covered = (tuple[BRANCH_TRUE_COUNT] > 0 ? 1 : 0) + (tuple[BRANCH_FALSE_COUNT] > 0 ? 1 : 0);
+                coverage.addConditions((int) tuple[BRANCH_LINE], 2, covered);
+            }
+        }
+
+        private boolean isFile() {
+            return path.size() == FILE_DEPTH && "data".equals(path.get(0)) && "files".equals(path.get(2));
+        }
+
+        /**
+         * @return true if the current position is in the given entry of a file
+         */
+        private boolean isIn(String fileEntry) {
+            return path.size() >= FILE_ENTRY_DEPTH && "data".equals(path.get(0)) && "files".equals(path.get(2))
+                    && fileEntry.equals(path.get(FILE_ENTRY_DEPTH - 1));
+        }
+
+        private static long toLong(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+            if (value instanceof Boolean) {
+                return ((Boolean) value) ? 1L : 0L;
+            }
+            return 0L;
+        }
+    }
+
+    /**
+     * Coverage segments of a file, in the order of the export: by line, then column.
+     */
+    static final class FileSegments {
+
+        private static final int HAS_COUNT = 1;
+        private static final int REGION_ENTRY = 2;
+        private static final int GAP_REGION = 4;
+
+        private int[] lines = new int[64];
+        private long[] counts = new long[64];
+        private byte[] flags = new byte[64];
+        private int size;
+
+        void add(int line, long count, boolean hasCount, boolean isRegionEntry, boolean isGapRegion) {
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+                flags = Arrays.copyOf(flags, size * 2);
+            }
+            lines[size] = line;
+            counts[size] = count;
+            flags[size] = (byte) ((hasCount ? HAS_COUNT : 0) | (isRegionEntry ? REGION_ENTRY : 0) | (isGapRegion ? GAP_REGION : 0));
+            size++;
+        }
+
+        /**
+         * Line hits as computed by LineCoverageStats in LLVM: a line is mapped when a region starts on it or when the
+         * region of the previous segment goes on over it, and its count is the highest among these regions.
+         */
+        void computeHits(LineCoverage coverage) {
+            int next = 0;
+            int wrapped = -1;
+            for (int line = size > 0 ? lines[0] : 0; next < size; line++) {
+                int first = next;
+                while (next < size && lines[next] == line) {
+                    next++;
+                }
+
+                int regionStarts = 0;
+                for (int i = first; i < next; i++) {
+                    if (isStartOfRegion(i)) {
+                        regionStarts++;
+                    }
+                }
+                boolean startOfSkippedRegion = next > first && !has(first, HAS_COUNT) && has(first, REGION_ENTRY);
+                boolean mapped = !startOfSkippedRegion && (wrapped >= 0 && has(wrapped, HAS_COUNT) || regionStarts > 0);
+
+                if (mapped) {
+                    long count = wrapped >= 0 ? counts[wrapped] : 0;
+                    for (int i = first; i < next; i++) {
+                        if (isStartOfRegion(i)) {
+                            count = Math.max(count, counts[i]);
+                        }
+                    }
+                    coverage.setHits(line, (int) Math.min(count, Integer.MAX_VALUE));
+                }
+
+                if (next > first) {
+                    wrapped = next - 1;
+                }
+            }
+        }
+
+        private boolean isStartOfRegion(int i) {
+            return !has(i, GAP_REGION) && has(i, HAS_COUNT) && has(i, REGION_ENTRY);
+        }
+
+        private boolean has(int i, int flag) {
+            return (flags[i] & flag) != 0;
+        }
+    }
+}
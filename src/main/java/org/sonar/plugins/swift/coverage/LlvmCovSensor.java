@@ -0,0 +1,81 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import org.sonar.api.batch.Sensor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
+import org.sonar.plugins.swift.SwiftPlugin;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
+import org.sonar.plugins.swift.lang.core.Swift;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Imports coverage from the JSON written by {@code llvm-cov export}, without a conversion to Cobertura.
+ * When its reports are found they replace the Cobertura reports, see {@link SwiftCoberturaSensor}.
+ */
+public final class LlvmCovSensor implements Sensor {
+
+    public static final String REPORT_PATTERN_KEY = SwiftPlugin.PROPERTY_PREFIX + ".coverage.llvmcov.reportPattern";
+    public static final String DEFAULT_REPORT_PATTERN = "sonar-reports/llvm-cov*.json";
+
+    private final Settings settings;
+    private final FileSystem fileSystem;
+    private final SwiftFileIndex fileIndex;
+
+    public LlvmCovSensor(final FileSystem fileSystem, final Settings settings, final SwiftFileIndex fileIndex) {
+
+        this.settings = settings;
+        this.fileSystem = fileSystem;
+        this.fileIndex = fileIndex;
+    }
+
+    public boolean shouldExecuteOnProject(final Project project) {
+
+        return project.isRoot() && fileSystem.languages().contains(Swift.KEY)
+                && isEnabled(fileSystem, settings);
+    }
+
+    static boolean isEnabled(final FileSystem fileSystem, final Settings settings) {
+
+        return !reportsIn(fileSystem, settings).isEmpty();
+    }
+
+    private static List<File> reportsIn(final FileSystem fileSystem, final Settings settings) {
+
+        return new ReportFilesFinder(settings, REPORT_PATTERN_KEY, DEFAULT_REPORT_PATTERN).reportsIn(fileSystem.baseDir().getPath());
+    }
+
+    public void analyse(final Project project, final SensorContext context) {
+
+        final List<File> reports = reportsIn(fileSystem, settings);
+
+        final CoverageMeasuresPersistor persistor = new CoverageMeasuresPersistor(fileIndex, context);
+        final CoverageReportParser parser = CachedCoverageReportParser.withCache(new LlvmCovReportParser(), settings, fileSystem.baseDir());
+        persistor.saveReports(reports, parser, settings.getBoolean(SwiftCoberturaSensor.MERGE_KEY),
+                settings.getInt(ExternalIssueReports.THREADS_KEY));
+        fileIndex.logStatistics();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses several coverage reports concurrently and merges the coverage of each file, so that measures are saved once
+ * per file whatever the number of reports covering it.
+ */
+final class MergedCoverage implements CoverageSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergedCoverage.class);
+
+    private final CoverageReportParser parser;
+    private final SwiftFileIndex fileIndex;
+    private final int threads;
+    private final ConcurrentMap<String, LineCoverage> coverageByFile = new ConcurrentHashMap<String, LineCoverage>();
+
+    /**
+     * @param threads number of reports parsed at the same time, 0 for one per available processor
+     */
+    MergedCoverage(CoverageReportParser parser, SwiftFileIndex fileIndex, int threads) {
+        this.parser = parser;
+        this.fileIndex = fileIndex;
+        this.threads = threads;
+    }
+
+    /**
+     * Reports may write the path of a file relative or absolute: coverage is merged by resolved file.
+     */
+    @Override
+    public void accept(String filePath, LineCoverage coverage) {
+        InputFile inputFile = fileIndex.inputFile(filePath);
+        String key = inputFile == null ? filePath : inputFile.absolutePath();
+        LineCoverage merged = coverageByFile.putIfAbsent(key, coverage);
+        if (merged != null) {
+            synchronized (merged) {
+                merged.merge(coverage);
+            }
+        }
+    }
+
+    void parseReports(List<File> reports) {
+        int threadCount = Math.min(threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads, reports.size());
+        if (threadCount <= 1) {
+            for (File report : reports) {
+                parseReport(report);
+            }
+            return;
+        }
+
+        LOGGER.info("Processing {} coverage reports with {} threads", reports.size(), threadCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = Lists.newArrayList();
+            for (final File report : reports) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        parseReport(report);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing coverage reports", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to parse coverage reports", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void parseReport(File report) {
+        LOGGER.info("Processing coverage report {}", report);
+        parser.parseReport(report, this);
+    }
+
+    /**
+     * Hands the merged coverage of each file to the sink. Must be called once all reports are parsed.
+     */
+    void saveTo(CoverageSink sink) {
+        for (Map.Entry<String, LineCoverage> entry : coverageByFile.entrySet()) {
+            sink.accept(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -19,39 +19,43 @@
  */
 package org.sonar.plugins.swift.coverage;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
 import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.plugins.swift.SwiftFileIndex;
 import org.sonar.plugins.swift.SwiftPlugin;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
 import org.sonar.plugins.swift.lang.core.Swift;
 
 import java.io.File;
+import java.util.List;
 
 
 public final class SwiftCoberturaSensor implements Sensor {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(SwiftCoberturaSensor.class);
-
     public static final String REPORT_PATTERN_KEY = SwiftPlugin.PROPERTY_PREFIX + ".coverage.reportPattern";
     public static final String DEFAULT_REPORT_PATTERN = "sonar-reports/coverage*.xml";
+    public static final String MERGE_KEY = SwiftPlugin.PROPERTY_PREFIX + ".coverage.merge";
+    public static final String DEFAULT_MERGE = "false";
+    public static final String CACHE_PATH_KEY = SwiftPlugin.PROPERTY_PREFIX + ".coverage.cache";
 
     private final ReportFilesFinder reportFilesFinder;
 
     private final Settings settings;
     private final FileSystem fileSystem;
     private final PathResolver pathResolver;
+    private final SwiftFileIndex fileIndex;
     private Project project;
 
-    public SwiftCoberturaSensor(final FileSystem fileSystem, final PathResolver pathResolver, final Settings settings) {
+    public SwiftCoberturaSensor(final FileSystem fileSystem, final PathResolver pathResolver, final Settings settings, final SwiftFileIndex fileIndex) {
 
         this.settings = settings;
         this.fileSystem = fileSystem;
         this.pathResolver = pathResolver;
+        this.fileIndex = fileIndex;
 
         reportFilesFinder = new ReportFilesFinder(settings, REPORT_PATTERN_KEY, DEFAULT_REPORT_PATTERN);
     }
@@ -60,17 +64,19 @@ public final class SwiftCoberturaSensor implements Sensor {
 
         this.project = project;
 
-        return project.isRoot() && fileSystem.languages().contains(Swift.KEY);
+        // llvm-cov reports replace the Cobertura reports, a file can only get its coverage once
+        return project.isRoot() && fileSystem.languages().contains(Swift.KEY)
+                && !LlvmCovSensor.isEnabled(fileSystem, settings);
     }
 
     public void analyse(final Project project, final SensorContext context) {
 
 
         final String projectBaseDir = fileSystem.baseDir().getPath();
-
-        for (final File report : reportFilesFinder.reportsIn(projectBaseDir)) {
-            LOGGER.info("Processing coverage report {}", report);
-            CoberturaReportParser.parseReport(report, fileSystem, project, context);
-        }
+        final List<File> reports = reportFilesFinder.reportsIn(projectBaseDir);
+        final CoverageMeasuresPersistor persistor = new CoverageMeasuresPersistor(fileIndex, context);
+        final CoverageReportParser parser = CachedCoverageReportParser.withCache(new CoberturaReportParser(), settings, fileSystem.baseDir());
+        persistor.saveReports(reports, parser, settings.getBoolean(MERGE_KEY), settings.getInt(ExternalIssueReports.THREADS_KEY));
+        fileIndex.logStatistics();
     }
 }
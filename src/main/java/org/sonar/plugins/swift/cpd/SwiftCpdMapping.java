@@ -31,14 +31,16 @@ public class SwiftCpdMapping extends AbstractCpdMapping {
 
     private final Swift language;
     private final Charset charset;
+    private final SwiftTokenStore tokenStore;
 
-    public SwiftCpdMapping(Swift language, FileSystem fileSystem) {
+    public SwiftCpdMapping(Swift language, FileSystem fileSystem, SwiftTokenStore tokenStore) {
         this.language = language;
         this.charset = fileSystem.encoding();
+        this.tokenStore = tokenStore;
     }
 
     public Tokenizer getTokenizer() {
-        return new SwiftTokenizer(charset);
+        return new SwiftTokenizer(charset, tokenStore);
     }
 
     public Language getLanguage() {
@@ -0,0 +1,111 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.cpd;
+
+import org.sonar.api.BatchExtension;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tokens of the files lexed by the squid sensor, kept so that CPD does not have to lex them again.
+ *
+ * The number of stored tokens is bounded: once the limit is reached, files are not stored anymore and CPD
+ * falls back to lexing them. Files are evicted as soon as CPD reads them.
+ */
+public class SwiftTokenStore implements BatchExtension {
+
+    static final long DEFAULT_MAX_TOKENS = 5000000L;
+
+    private final ConcurrentMap<String, FileTokens> tokensByFile = new ConcurrentHashMap<String, FileTokens>();
+    private final AtomicLong tokenCount = new AtomicLong();
+    private final long maxTokens;
+
+    public SwiftTokenStore() {
+        this(DEFAULT_MAX_TOKENS);
+    }
+
+    SwiftTokenStore(long maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Stores the tokens of a file, unless this would exceed the store capacity.
+     */
+    public boolean put(File file, FileTokens tokens) {
+
+        if (tokenCount.addAndGet(tokens.size()) > maxTokens) {
+            tokenCount.addAndGet(-tokens.size());
+            return false;
+        }
+
+        FileTokens previous = tokensByFile.put(key(file), tokens);
+        if (previous != null) {
+            tokenCount.addAndGet(-previous.size());
+        }
+        return true;
+    }
+
+    /**
+     * Returns and forgets the tokens of a file, or null if they were not stored.
+     */
+    @Nullable
+    public FileTokens remove(File file) {
+
+        FileTokens tokens = tokensByFile.remove(key(file));
+        if (tokens != null) {
+            tokenCount.addAndGet(-tokens.size());
+        }
+        return tokens;
+    }
+
+    private static String key(File file) {
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * Token images and lines of a file, in lexing order.
+     */
+    public static class FileTokens {
+
+        private final String[] images;
+        private final int[] lines;
+
+        public FileTokens(String[] images, int[] lines) {
+            this.images = images;
+            this.lines = lines;
+        }
+
+        public int size() {
+            return images.length;
+        }
+
+        public String getImage(int index) {
+            return images[index];
+        }
+
+        public int getLine(int index) {
+            return lines[index];
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.cpd;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Token;
+import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Records the tokens of each scanned file into the {@link SwiftTokenStore}.
+ */
+public class SwiftTokenStoreVisitor extends SquidAstVisitor<SwiftGrammar> implements AstAndTokenVisitor {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final SwiftTokenStore store;
+
+    private String[] images = new String[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int size;
+    private boolean full;
+
+    public SwiftTokenStoreVisitor(SwiftTokenStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void visitFile(@Nullable AstNode astNode) {
+        size = 0;
+    }
+
+    @Override
+    public void visitToken(Token token) {
+
+        if (full) {
+            return;
+        }
+        if (size == images.length) {
+            images = Arrays.copyOf(images, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        images[size] = token.getValue();
+        lines[size] = token.getLine();
+        size++;
+    }
+
+    @Override
+    public void leaveFile(@Nullable AstNode astNode) {
+
+        // Files that could not be parsed have no token to share
+        if (astNode != null && !full) {
+            full = !store.put(getContext().getFile(), new SwiftTokenStore.FileTokens(Arrays.copyOf(images, size), Arrays.copyOf(lines, size)));
+        }
+    }
+}
@@ -31,30 +31,51 @@ import org.sonar.plugins.swift.lang.lexer.SwiftLexer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 public class SwiftTokenizer implements Tokenizer {
 
     private final Charset charset;
+    private final SwiftTokenStore tokenStore;
 
-    public SwiftTokenizer(Charset charset) {
+    // Lexers are not thread safe but can lex any number of files one after the other
+    private final ThreadLocal<Lexer> lexer = new ThreadLocal<Lexer>() {
+        @Override
+        protected Lexer initialValue() {
+            return SwiftLexer.create(new SwiftConfiguration(charset));
+        }
+    };
+
+    // Identifiers and keywords repeat a lot: keep a single String per distinct image
+    private final ConcurrentMap<String, String> images = new ConcurrentHashMap<String, String>();
+
+    public SwiftTokenizer(Charset charset, SwiftTokenStore tokenStore) {
         this.charset = charset;
+        this.tokenStore = tokenStore;
     }
 
     public void tokenize(SourceCode source, Tokens cpdTokens) throws IOException {
 
-        Lexer lexer = SwiftLexer.create(new SwiftConfiguration(charset));
         String fileName = source.getFileName();
-        List<Token> tokens = lexer.lex(new File(fileName));
-        for (Token token : tokens) {
-            TokenEntry cpdToken = new TokenEntry(getTokenImage(token), fileName, token.getLine());
-            cpdTokens.add(cpdToken);
+        SwiftTokenStore.FileTokens storedTokens = tokenStore.remove(new File(fileName));
+
+        if (storedTokens != null) {
+            for (int i = 0; i < storedTokens.size(); i++) {
+                cpdTokens.add(new TokenEntry(intern(storedTokens.getImage(i)), fileName, storedTokens.getLine(i)));
+            }
+        } else {
+            // The lexer owns the returned list: tokens are read from it directly, without any copy
+            for (Token token : lexer.get().lex(new File(fileName))) {
+                cpdTokens.add(new TokenEntry(intern(token.getValue()), fileName, token.getLine()));
+            }
         }
         cpdTokens.add(TokenEntry.getEOF());
     }
 
-    private String getTokenImage(Token token) {
-        return token.getValue();
+    private String intern(String image) {
+        String interned = images.putIfAbsent(image, image);
+        return interned == null ? image : interned;
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.rule.RuleKey;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Rule keys of the active rules of an external linter repository, loaded once per analysis.
+ *
+ * Issues of rules that are unknown or not active in the quality profile are skipped when the reports are read,
+ * instead of being rejected one by one when they are published. Safe to use from concurrent report parsers.
+ */
+public class ActiveRuleKeys {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ActiveRuleKeys.class);
+
+	private final String repositoryKey;
+	private final Map<String, RuleKey> ruleKeys;
+
+	private final AtomicInteger skipped = new AtomicInteger();
+	private final Set<String> skippedRuleIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	public ActiveRuleKeys(final ActiveRules activeRules, final String repositoryKey) {
+		this.repositoryKey = repositoryKey;
+
+		ImmutableMap.Builder<String, RuleKey> builder = ImmutableMap.builder();
+		for (ActiveRule activeRule : activeRules.findByRepository(repositoryKey)) {
+			builder.put(activeRule.ruleKey().rule(), activeRule.ruleKey());
+		}
+		this.ruleKeys = builder.build();
+	}
+
+	/**
+	 * @return the key of the rule if it is active, null otherwise
+	 */
+	@Nullable
+	public RuleKey ruleKey(final String ruleId) {
+
+		RuleKey ruleKey = this.ruleKeys.get(ruleId);
+		if (ruleKey == null) {
+			this.skipped.incrementAndGet();
+			this.skippedRuleIds.add(ruleId);
+		}
+		return ruleKey;
+	}
+
+	public void logSkipped() {
+
+		if (this.skipped.get() > 0) {
+			LOGGER.info("Skipped {} issues of {} rules not active in repository {}: {}", this.skipped.get(),
+					this.skippedRuleIds.size(), this.repositoryKey, new TreeSet<String>(this.skippedRuleIds));
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import javax.annotation.Nullable;
+
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Issue read from the report of an external tool, not yet attached to its input file.
+ */
+public class ExternalIssue {
+
+	private final String filePath;
+	private final int line;
+	private final RuleKey ruleKey;
+	private final String message;
+
+	public ExternalIssue(final String filePath, final int line, final RuleKey ruleKey, @Nullable final String message) {
+		this.filePath = filePath;
+		this.line = line;
+		this.ruleKey = ruleKey;
+		this.message = message;
+	}
+
+	public String getFilePath() {
+		return this.filePath;
+	}
+
+	public int getLine() {
+		return this.line;
+	}
+
+	public RuleKey getRuleKey() {
+		return this.ruleKey;
+	}
+
+	@Nullable
+	public String getMessage() {
+		return this.message;
+	}
+}
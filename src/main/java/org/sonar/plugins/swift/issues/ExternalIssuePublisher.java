@@ -0,0 +1,136 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.issue.Issuable;
+import org.sonar.api.issue.Issue;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+/**
+ * Attaches external issues to their input files. Issuable is not thread-safe: publication happens on the sensor
+ * thread, once all the reports have been parsed.
+ *
+ * Reports of overlapping source directories repeat the same violations: an issue is published only once per file,
+ * line, rule and message. Issues are identified by a 64 bit hash so that the index stays compact, a collision would
+ * only drop one issue.
+ */
+public class ExternalIssuePublisher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExternalIssuePublisher.class);
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final ResourcePerspectives resourcePerspectives;
+	private final SwiftFileIndex fileIndex;
+	private final LongHashSet published = new LongHashSet();
+
+	public ExternalIssuePublisher(final ResourcePerspectives resourcePerspectives, final SwiftFileIndex fileIndex) {
+		this.resourcePerspectives = resourcePerspectives;
+		this.fileIndex = fileIndex;
+	}
+
+	/**
+	 * @return the number of issues added
+	 */
+	public int publish(final Collection<ExternalIssue> issues) {
+
+		int added = 0;
+		int duplicates = 0;
+		for (ExternalIssue externalIssue : issues) {
+			if (!this.published.add(hash(externalIssue))) {
+				duplicates++;
+			} else if (publish(externalIssue)) {
+				added++;
+			}
+		}
+		if (duplicates > 0) {
+			LOGGER.info("Skipped {} duplicated external issues", duplicates);
+		}
+		LOGGER.debug("Published {} of {} external issues", added, issues.size());
+		return added;
+	}
+
+	/**
+	 * FNV-1a hash of the file, line, rule and message of an issue.
+	 */
+	static long hash(final ExternalIssue issue) {
+
+		long hash = FNV_OFFSET_BASIS;
+		hash = hash(hash, issue.getFilePath());
+		hash = hash(hash, issue.getLine());
+		hash = hash(hash, issue.getRuleKey().repository());
+		hash = hash(hash, issue.getRuleKey().rule());
+		String message = issue.getMessage();
+		return message == null ? hash(hash, -1) : hash(hash, message);
+	}
+
+	private static long hash(long hash, final String value) {
+
+		long result = hash;
+		for (int i = 0; i < value.length(); i++) {
+			result = hash(result, value.charAt(i));
+		}
+		// separator, so that ("ab", "c") and ("a", "bc") differ
+		return hash(result, -1);
+	}
+
+	private static long hash(final long hash, final int value) {
+
+		return (hash ^ value) * FNV_PRIME;
+	}
+
+	private boolean publish(final ExternalIssue externalIssue) {
+
+		String filePath = externalIssue.getFilePath();
+		InputFile inputFile = this.fileIndex.inputFileByAbsolutePath(filePath);
+
+		if (inputFile == null) {
+			LOGGER.warn("file not included in sonar {}", filePath);
+			return false;
+		}
+
+		Issuable issuable = this.resourcePerspectives.as(Issuable.class, inputFile);
+
+		if (issuable == null) {
+			return false;
+		}
+
+		Issue issue = issuable.newIssueBuilder()
+				.ruleKey(externalIssue.getRuleKey())
+				.line(externalIssue.getLine())
+				.message(externalIssue.getMessage())
+				.build();
+
+		try {
+			return issuable.addIssue(issue);
+		} catch (Exception e) {
+			// Unable to add issue : probably because does not exist in the repository
+			LOGGER.warn(e.getMessage());
+			return false;
+		}
+	}
+}
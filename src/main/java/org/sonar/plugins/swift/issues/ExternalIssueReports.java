@@ -0,0 +1,132 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Settings;
+import org.sonar.plugins.swift.SwiftPlugin;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Finds and parses the report files of the external linters.
+ *
+ * Scripts such as run-sonar-swift.sh write one report per source directory: these files are parsed concurrently on a
+ * bounded pool, each into its own list, and the issues are returned in the order of the report files so that they
+ * can be published from the sensor thread.
+ */
+public final class ExternalIssueReports {
+
+	public static final String THREADS_KEY = SwiftPlugin.PROPERTY_PREFIX + ".reports.threads";
+	public static final String DEFAULT_THREADS = "0";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExternalIssueReports.class);
+
+	private ExternalIssueReports() {
+		// only static methods
+	}
+
+	/**
+	 * @return the report files matching the Ant pattern, relative to the base directory
+	 */
+	public static List<File> find(final File baseDir, final String pattern) {
+
+		DirectoryScanner scanner = new DirectoryScanner();
+		scanner.setIncludes(new String[]{pattern});
+		scanner.setBasedir(baseDir.getAbsolutePath());
+		scanner.setCaseSensitive(false);
+		scanner.scan();
+
+		List<File> reports = Lists.newArrayList();
+		for (String filename : scanner.getIncludedFiles()) {
+			reports.add(new File(baseDir, filename));
+		}
+		return reports;
+	}
+
+	public static List<ExternalIssue> parse(final List<File> reports, final ExternalIssueReportParser parser,
+			final Settings settings, final String tool) {
+
+		int threads = threadCount(settings, reports.size());
+		if (threads <= 1) {
+			List<ExternalIssue> issues = Lists.newArrayList();
+			for (File report : reports) {
+				issues.addAll(parse(report, parser, tool));
+			}
+			return issues;
+		}
+
+		LOGGER.info("Processing {} {} reports with {} threads", reports.size(), tool, threads);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<ExternalIssue>>> futures = Lists.newArrayList();
+			for (final File report : reports) {
+				futures.add(executor.submit(new Callable<List<ExternalIssue>>() {
+					@Override
+					public List<ExternalIssue> call() {
+						return parse(report, parser, tool);
+					}
+				}));
+			}
+
+			List<ExternalIssue> issues = Lists.newArrayList();
+			for (Future<List<ExternalIssue>> future : futures) {
+				issues.addAll(future.get());
+			}
+			return issues;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while parsing " + tool + " reports", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to parse " + tool + " reports", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<ExternalIssue> parse(final File report, final ExternalIssueReportParser parser, final String tool) {
+
+		LOGGER.info("Processing {} report {}", tool, report.getName());
+		List<ExternalIssue> issues = parser.parseReport(report);
+		return issues == null ? Collections.<ExternalIssue>emptyList() : issues;
+	}
+
+	private static int threadCount(final Settings settings, final int reportCount) {
+
+		int threads = settings.getInt(THREADS_KEY);
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		return Math.min(threads, reportCount);
+	}
+}
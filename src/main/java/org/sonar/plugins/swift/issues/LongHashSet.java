@@ -0,0 +1,94 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+/**
+ * Set of long values backed by an open addressing table, without boxing nor per-entry objects.
+ */
+class LongHashSet {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	// 0 marks free slots, so the value 0 itself is tracked separately
+	private long[] table;
+	private boolean containsZero;
+	private int size;
+
+	LongHashSet() {
+		this.table = new long[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * @return true if the value was not already in the set
+	 */
+	boolean add(long value) {
+
+		if (value == 0) {
+			if (this.containsZero) {
+				return false;
+			}
+			this.containsZero = true;
+			this.size++;
+			return true;
+		}
+
+		int mask = this.table.length - 1;
+		int slot = mix(value) & mask;
+		while (this.table[slot] != 0) {
+			if (this.table[slot] == value) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		this.table[slot] = value;
+		this.size++;
+
+		// keep the table at most half full so that probe sequences stay short
+		if (this.size * 2 > this.table.length) {
+			grow();
+		}
+		return true;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	private void grow() {
+
+		long[] old = this.table;
+		this.table = new long[old.length * 2];
+		int mask = this.table.length - 1;
+		for (long value : old) {
+			if (value != 0) {
+				int slot = mix(value) & mask;
+				while (this.table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				this.table[slot] = value;
+			}
+		}
+	}
+
+	private static int mix(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues.swiftlint;
+
+/**
+ * Parses the lines of the SwiftLint Xcode reporter, such as
+ * <pre>/path/File.swift:12:5: warning: Line Length Violation: Line should be 120 characters or less (line_length)</pre>
+ *
+ * Each line is scanned once, without regular expressions. The parser keeps the fields of the last parsed line and
+ * is meant to be reused for all the lines of a report, so it must not be shared between threads.
+ */
+class SwiftLintLineParser {
+
+    private static final String FILE_SUFFIX = ".swift:";
+    private static final String WARNING = "warning";
+    private static final String ERROR = "error";
+
+    private String filePath;
+    private int line;
+    private int column;
+    private String severity;
+    private String message;
+    private String ruleId;
+
+    /**
+     * @return true if the line is a SwiftLint violation, its fields are then available through the getters
+     */
+    boolean parse(String text) {
+
+        int from = 0;
+        int suffix;
+        while ((suffix = text.indexOf(FILE_SUFFIX, from)) >= 0) {
+            if (parseFrom(text, suffix)) {
+                return true;
+            }
+            from = suffix + 1;
+        }
+        return false;
+    }
+
+    private boolean parseFrom(String text, int suffix) {
+
+        int length = text.length();
+        int pos = suffix + FILE_SUFFIX.length();
+
+        // line
+        int start = pos;
+        int value = 0;
+        while (pos < length && isDigit(text.charAt(pos))) {
+            value = value * 10 + text.charAt(pos) - '0';
+            pos++;
+        }
+        if (pos == start) {
+            return false;
+        }
+        int lineNumber = value;
+
+        // optional column
+        int columnNumber = 0;
+        if (pos < length && text.charAt(pos) == ':' && pos + 1 < length && isDigit(text.charAt(pos + 1))) {
+            pos++;
+            value = 0;
+            while (pos < length && isDigit(text.charAt(pos))) {
+                value = value * 10 + text.charAt(pos) - '0';
+                pos++;
+            }
+            columnNumber = value;
+        }
+
+        // severity
+        if (!text.startsWith(": ", pos)) {
+            return false;
+        }
+        pos += 2;
+        String level;
+        if (text.startsWith(WARNING, pos)) {
+            level = WARNING;
+        } else if (text.startsWith(ERROR, pos)) {
+            level = ERROR;
+        } else {
+            return false;
+        }
+        pos += level.length();
+        if (!text.startsWith(": ", pos)) {
+            return false;
+        }
+        int messageStart = pos + 2;
+
+        // message, then the rule identifier between the last parentheses
+        int open = text.lastIndexOf(" (");
+        while (open >= messageStart) {
+            int ruleStart = open + 2;
+            int ruleEnd = ruleStart;
+            while (ruleEnd < length && isWordChar(text.charAt(ruleEnd))) {
+                ruleEnd++;
+            }
+            if (ruleEnd > ruleStart) {
+                filePath = text.substring(0, suffix + FILE_SUFFIX.length() - 1);
+                line = lineNumber;
+                column = columnNumber;
+                severity = level;
+                message = text.substring(messageStart, open);
+                ruleId = text.substring(ruleStart, ruleEnd);
+                return true;
+            }
+            open = text.lastIndexOf(" (", open - 1);
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isDigit(c) || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    String getFilePath() {
+        return filePath;
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * @return the column, or 0 when the report does not provide it
+     */
+    int getColumn() {
+        return column;
+    }
+
+    String getSeverity() {
+        return severity;
+    }
+
+    String getMessage() {
+        return message;
+    }
+
+    String getRuleId() {
+        return ruleId;
+    }
+}
@@ -19,39 +19,76 @@
  */
 package org.sonar.plugins.swift.issues.swiftlint;
 
+import com.google.common.collect.Lists;
 import org.apache.commons.io.IOUtils;
+import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.sonar.api.batch.SensorContext;
-import org.sonar.api.batch.fs.FileSystem;
-import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.component.ResourcePerspectives;
-import org.sonar.api.issue.Issuable;
-import org.sonar.api.issue.Issue;
-import org.sonar.api.resources.Project;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.swift.JsonObjectStreamHandler;
+import org.sonar.plugins.swift.issues.ActiveRuleKeys;
+import org.sonar.plugins.swift.issues.ExternalIssue;
+import org.sonar.plugins.swift.issues.ExternalIssueReportParser;
 
+import javax.annotation.Nullable;
 import java.io.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
 
-public class SwiftLintReportParser {
+public class SwiftLintReportParser implements ExternalIssueReportParser {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SwiftLintReportParser.class);
 
-    private final Project project;
-    private final SensorContext context;
-    private final ResourcePerspectives resourcePerspectives;
-    private final FileSystem fileSystem;
+    private final ActiveRuleKeys ruleKeys;
 
-    public SwiftLintReportParser(final Project project, final SensorContext context, final ResourcePerspectives resourcePerspectives, final FileSystem fileSystem) {
-        this.project = project;
-        this.context = context;
-        this.resourcePerspectives = resourcePerspectives;
-        this.fileSystem = fileSystem;
+    public SwiftLintReportParser(final ActiveRuleKeys ruleKeys) {
+        this.ruleKeys = ruleKeys;
     }
 
-    public void parseReport(File reportFile) {
+    @Override
+    public List<ExternalIssue> parseReport(File reportFile) {
+        List<ExternalIssue> issues = Lists.newArrayList();
+        if (reportFile.getName().endsWith(".json")) {
+            parseJsonReport(reportFile, issues);
+        } else {
+            parseTextReport(reportFile, issues);
+        }
+        return issues;
+    }
+
+    /**
+     * Reads the output of the json reporter, an array of violations such as
+     * <pre>{"file": "/path/File.swift", "line": 12, "character": 5, "severity": "Warning", "rule_id": "line_length", "reason": "..."}</pre>
+     */
+    private void parseJsonReport(File reportFile, final List<ExternalIssue> issues) {
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(reportFile), "UTF-8"));
+            new JsonObjectStreamHandler() {
+                @Override
+                protected boolean onObject(@Nullable String key, Map<String, Object> violation, @Nullable Map<String, Object> parent) {
+                    String filePath = stringValue(violation, "file");
+                    String ruleId = stringValue(violation, "rule_id");
+                    if (filePath != null && ruleId != null) {
+                        addIssue(filePath, intValue(violation, "line", 1), ruleId, stringValue(violation, "reason"), issues);
+                    }
+                    return false;
+                }
+            }.parse(reader);
+
+        } catch (IOException e) {
+            LOGGER.error("Failed to parse SwiftLint report file", e);
+        } catch (ParseException e) {
+            LOGGER.error("Failed to parse SwiftLint report file", e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    private void parseTextReport(File reportFile, List<ExternalIssue> issues) {
+        SwiftLintLineParser lineParser = new SwiftLintLineParser();
+        long start = System.nanoTime();
+        long lines = 0;
         try {
             // Read and parse report
             FileReader fr = new FileReader(reportFile);
@@ -59,8 +96,10 @@ public class SwiftLintReportParser {
             BufferedReader br = new BufferedReader(fr);
             String line;
             while ((line = br.readLine()) != null) {
-                recordIssue(line);
-
+                lines++;
+                if (lineParser.parse(line)) {
+                    addIssue(lineParser.getFilePath(), lineParser.getLine(), lineParser.getRuleId(), lineParser.getMessage(), issues);
+                }
             }
             IOUtils.closeQuietly(br);
             IOUtils.closeQuietly(fr);
@@ -70,42 +109,18 @@ public class SwiftLintReportParser {
         } catch (IOException e) {
             LOGGER.error("Failed to parse SwiftLint report file", e);
         }
-    }
-
-    private void recordIssue(final String line) {
-        LOGGER.debug("record issue {}", line);
-
-        Pattern pattern = Pattern.compile("(.*.swift):(\\w+):?(\\w+)?: (warning|error): (.*) \\((\\w+)");
-        Matcher matcher = pattern.matcher(line);
-        while (matcher.find()) {
-            String filePath = matcher.group(1);
-            int lineNum = Integer.parseInt(matcher.group(2));
-            String message = matcher.group(5);
-            String ruleId = matcher.group(6);
-
-            InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasAbsolutePath(filePath));
-
-            if (inputFile == null) {
-                LOGGER.warn("file not included in sonar {}", filePath);
-                continue;
-            }
-
-            Issuable issuable = resourcePerspectives.as(Issuable.class, inputFile);
 
-            if (issuable != null) {
-                Issue issue = issuable.newIssueBuilder()
-                        .ruleKey(RuleKey.of(SwiftLintRulesDefinition.REPOSITORY_KEY, ruleId))
-                        .line(lineNum)
-                        .message(message)
-                        .build();
+        if (LOGGER.isDebugEnabled()) {
+            long elapsedMillis = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+            LOGGER.debug("Parsed {} lines of {} in {} ms ({} lines/s)",
+                    lines, reportFile.getName(), elapsedMillis, lines * 1000L / elapsedMillis);
+        }
+    }
 
-                try {
-                    issuable.addIssue(issue);
-                } catch (Exception e) {
-                    // Unable to add issue : probably because does not exist in the repository
-                    LOGGER.warn(e.getMessage());
-                }
-            }
+    private void addIssue(String filePath, int line, String ruleId, @Nullable String message, List<ExternalIssue> issues) {
+        RuleKey ruleKey = ruleKeys.ruleKey(ruleId);
+        if (ruleKey != null) {
+            issues.add(new ExternalIssue(filePath, line, ruleKey, message));
         }
     }
 }
@@ -19,19 +19,23 @@
  */
 package org.sonar.plugins.swift.issues.swiftlint;
 
-import org.apache.tools.ant.DirectoryScanner;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
 import org.sonar.plugins.swift.SwiftPlugin;
+import org.sonar.plugins.swift.issues.ActiveRuleKeys;
+import org.sonar.plugins.swift.issues.ExternalIssue;
+import org.sonar.plugins.swift.issues.ExternalIssuePublisher;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
 import org.sonar.plugins.swift.lang.core.Swift;
 
 import java.io.File;
+import java.util.List;
 
 
 public class SwiftLintSensor implements Sensor {
@@ -39,16 +43,19 @@ public class SwiftLintSensor implements Sensor {
     public static final String REPORT_PATH_KEY = SwiftPlugin.PROPERTY_PREFIX + ".swiftlint.report";
     public static final String DEFAULT_REPORT_PATH = "sonar-reports/*swiftlint.txt";
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(SwiftLintSensor.class);
-
     private final Settings conf;
     private final FileSystem fileSystem;
     private final ResourcePerspectives resourcePerspectives;
+    private final SwiftFileIndex fileIndex;
+    private final ActiveRules activeRules;
 
-    public SwiftLintSensor(final FileSystem fileSystem, final Settings config, final ResourcePerspectives resourcePerspectives) {
+    public SwiftLintSensor(final FileSystem fileSystem, final Settings config, final ResourcePerspectives resourcePerspectives, final SwiftFileIndex fileIndex,
+            final ActiveRules activeRules) {
         this.conf = config;
         this.fileSystem = fileSystem;
         this.resourcePerspectives = resourcePerspectives;
+        this.fileIndex = fileIndex;
+        this.activeRules = activeRules;
     }
 
     @Override
@@ -59,26 +66,13 @@ public class SwiftLintSensor implements Sensor {
     @Override
     public void analyse(Project module, SensorContext context) {
 
-        final String projectBaseDir = fileSystem.baseDir().getAbsolutePath();
-
-        SwiftLintReportParser parser = new SwiftLintReportParser(module, context, resourcePerspectives, fileSystem);
-        parseReportIn(projectBaseDir, parser);
-    }
-
-    private void parseReportIn(final String baseDir, final SwiftLintReportParser parser) {
-
-        DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setIncludes(new String[]{reportPath()});
-        scanner.setBasedir(baseDir);
-        scanner.setCaseSensitive(false);
-        scanner.scan();
-        String[] files = scanner.getIncludedFiles();
-
-        for(String filename : files) {
-            LOGGER.info("Processing SwiftLint report {}", filename);
-            parser.parseReport(new File(filename));
-        }
+        ActiveRuleKeys ruleKeys = new ActiveRuleKeys(activeRules, SwiftLintRulesDefinition.REPOSITORY_KEY);
+        List<File> reports = ExternalIssueReports.find(fileSystem.baseDir(), reportPath());
+        List<ExternalIssue> issues = ExternalIssueReports.parse(reports, new SwiftLintReportParser(ruleKeys), conf, "SwiftLint");
+        ruleKeys.logSkipped();
 
+        new ExternalIssuePublisher(resourcePerspectives, fileIndex).publish(issues);
+        fileIndex.logStatistics();
     }
 
     private String reportPath() {
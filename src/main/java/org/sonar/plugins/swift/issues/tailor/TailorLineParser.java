@@ -0,0 +1,139 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues.tailor;
+
+/**
+ * Parses the lines of the Tailor xcode formatter, such as
+ * <pre>/path/File.swift:12:5: warning: [trailing-whitespace] Line should not have any trailing whitespace</pre>
+ *
+ * Each line is scanned once from left to right, without regular expressions. The parser keeps the fields of the last
+ * parsed line and is meant to be reused for all the lines of a report, so it must not be shared between threads.
+ */
+class TailorLineParser {
+
+	private static final String FILE_SUFFIX = ".swift:";
+	private static final String RULE_START = ": [";
+	private static final String RULE_END = "] ";
+
+	private String filePath;
+	private int line;
+	private int column;
+	private String severity;
+	private String ruleId;
+	private String message;
+
+	/**
+	 * @return true if the line is a Tailor violation, its fields are then available through the getters
+	 */
+	boolean parse(String text) {
+
+		int from = 0;
+		int suffix;
+		while ((suffix = text.indexOf(FILE_SUFFIX, from)) >= 0) {
+			if (parseFrom(text, suffix)) {
+				return true;
+			}
+			from = suffix + 1;
+		}
+		return false;
+	}
+
+	private boolean parseFrom(String text, int suffix) {
+
+		int length = text.length();
+		int pos = suffix + FILE_SUFFIX.length();
+
+		// line
+		int start = pos;
+		int lineNumber = 0;
+		while (pos < length && isDigit(text.charAt(pos))) {
+			lineNumber = lineNumber * 10 + text.charAt(pos) - '0';
+			pos++;
+		}
+		if (pos == start) {
+			return false;
+		}
+
+		// column, omitted by some Tailor versions for file level violations
+		int columnNumber = 0;
+		if (pos + 1 < length && text.charAt(pos) == ':' && isDigit(text.charAt(pos + 1))) {
+			pos++;
+			while (pos < length && isDigit(text.charAt(pos))) {
+				columnNumber = columnNumber * 10 + text.charAt(pos) - '0';
+				pos++;
+			}
+		}
+
+		// severity
+		if (!text.startsWith(": ", pos)) {
+			return false;
+		}
+		int severityStart = pos + 2;
+		int ruleStart = text.indexOf(RULE_START, severityStart);
+		if (ruleStart <= severityStart) {
+			return false;
+		}
+
+		// rule, then message
+		int ruleEnd = text.indexOf(RULE_END, ruleStart + RULE_START.length());
+		if (ruleEnd < 0) {
+			return false;
+		}
+
+		filePath = text.substring(0, suffix + FILE_SUFFIX.length() - 1);
+		line = lineNumber;
+		column = columnNumber;
+		severity = text.substring(severityStart, ruleStart);
+		ruleId = text.substring(ruleStart + RULE_START.length(), ruleEnd);
+		message = text.substring(ruleEnd + RULE_END.length());
+		return true;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	String getFilePath() {
+		return filePath;
+	}
+
+	int getLine() {
+		return line;
+	}
+
+	/**
+	 * @return the column, or 0 when the report does not provide it
+	 */
+	int getColumn() {
+		return column;
+	}
+
+	String getSeverity() {
+		return severity;
+	}
+
+	String getRuleId() {
+		return ruleId;
+	}
+
+	String getMessage() {
+		return message;
+	}
+}
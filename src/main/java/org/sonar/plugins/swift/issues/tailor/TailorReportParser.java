@@ -21,46 +21,124 @@ package org.sonar.plugins.swift.issues.tailor;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.io.IOUtils;
+import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.sonar.api.batch.SensorContext;
-import org.sonar.api.batch.fs.FileSystem;
-import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.component.ResourcePerspectives;
-import org.sonar.api.issue.Issuable;
-import org.sonar.api.issue.Issue;
-import org.sonar.api.resources.Project;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.swift.JsonObjectStreamHandler;
+import org.sonar.plugins.swift.issues.ActiveRuleKeys;
+import org.sonar.plugins.swift.issues.ExternalIssue;
+import org.sonar.plugins.swift.issues.ExternalIssueReportParser;
+
+import com.google.common.collect.Lists;
 
 /**
  * Created by tzwickl on 22/11/2016.
  */
 
-public class TailorReportParser {
+public class TailorReportParser implements ExternalIssueReportParser {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(TailorReportParser.class);
 
-	private final Project project;
-	private final SensorContext context;
-	private final ResourcePerspectives resourcePerspectives;
-	private final FileSystem fileSystem;
-
-	public TailorReportParser(final Project project, final SensorContext context,
-			final ResourcePerspectives resourcePerspectives, final FileSystem fileSystem) {
-		this.project = project;
-		this.context = context;
-		this.resourcePerspectives = resourcePerspectives;
-		this.fileSystem = fileSystem;
+	private final ActiveRuleKeys ruleKeys;
+
+	public TailorReportParser(final ActiveRuleKeys ruleKeys) {
+		this.ruleKeys = ruleKeys;
+	}
+
+	@Override
+	public List<ExternalIssue> parseReport(final File reportFile) {
+		List<ExternalIssue> issues = Lists.newArrayList();
+		if (reportFile.getName().endsWith(".json")) {
+			parseJsonReport(reportFile, issues);
+		} else {
+			parseTextReport(reportFile, issues);
+		}
+		return issues;
 	}
 
-	public void parseReport(final File reportFile) {
+	/**
+	 * Reads the output of the json formatter, where violations are grouped by file:
+	 * <pre>{"files": [{"path": "/path/File.swift", "violations": [{"severity": "warning", "rule": "...",
+	 * "location": {"line": 12, "column": 5}, "message": "..."}]}]}</pre>
+	 */
+	private void parseJsonReport(final File reportFile, final List<ExternalIssue> issues) {
+		Reader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(reportFile), "UTF-8"));
+			new JsonObjectStreamHandler() {
+
+				// violations read before the path of their file, if the formatter ever writes it last
+				private final List<Map<String, Object>> pending = Lists.newArrayList();
+
+				@Override
+				protected boolean onObject(@Nullable String key, Map<String, Object> object,
+						@Nullable Map<String, Object> parent) {
+					if ("location".equals(key)) {
+						return true;
+					}
+					if ("violations".equals(key) && parent != null) {
+						String filePath = stringValue(parent, "path");
+						if (filePath == null) {
+							pending.add(object);
+						} else {
+							addIssue(filePath, object, issues);
+						}
+					} else if ("files".equals(key)) {
+						String filePath = stringValue(object, "path");
+						if (filePath != null) {
+							for (Map<String, Object> violation : pending) {
+								addIssue(filePath, violation, issues);
+							}
+						}
+						pending.clear();
+					}
+					return false;
+				}
+			}.parse(reader);
+
+		} catch (IOException e) {
+			LOGGER.error("Failed to parse Tailor report file", e);
+		} catch (ParseException e) {
+			LOGGER.error("Failed to parse Tailor report file", e);
+		} finally {
+			IOUtils.closeQuietly(reader);
+		}
+	}
+
+	private void addIssue(final String filePath, final Map<String, Object> violation, final List<ExternalIssue> issues) {
+		String ruleId = JsonObjectStreamHandler.stringValue(violation, "rule");
+		if (ruleId == null) {
+			return;
+		}
+		Map<String, Object> location = location(violation);
+		int line = location == null ? 1 : JsonObjectStreamHandler.intValue(location, "line", 1);
+		addIssue(filePath, line, ruleId, JsonObjectStreamHandler.stringValue(violation, "message"), issues);
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> location(final Map<String, Object> violation) {
+		Object location = violation.get("location");
+		return location instanceof Map ? (Map<String, Object>) location : null;
+	}
+
+	private void parseTextReport(final File reportFile, final List<ExternalIssue> issues) {
+		TailorLineParser lineParser = new TailorLineParser();
+		long start = System.nanoTime();
+		long lines = 0;
 		try {
 			// Read and parse report
 			FileReader fr = new FileReader(reportFile);
@@ -68,51 +146,33 @@ public class TailorReportParser {
 			BufferedReader br = new BufferedReader(fr);
 			String line;
 			while ((line = br.readLine()) != null) {
-				recordIssue(line);
-
+				lines++;
+				if (lineParser.parse(line)) {
+					addIssue(lineParser.getFilePath(), lineParser.getLine(), lineParser.getRuleId(), lineParser.getMessage(),
+							issues);
+				}
 			}
 			IOUtils.closeQuietly(br);
 			IOUtils.closeQuietly(fr);
 
 		} catch (FileNotFoundException e) {
-			LOGGER.error("Failed to parse SwiftLint report file", e);
+			LOGGER.error("Failed to parse Tailor report file", e);
 		} catch (IOException e) {
-			LOGGER.error("Failed to parse SwiftLint report file", e);
+			LOGGER.error("Failed to parse Tailor report file", e);
 		}
-	}
-
-	private void recordIssue(final String line) {
-		LOGGER.debug("record issue {}", line);
-
-		Pattern pattern = Pattern.compile("(.*.swift):(\\w+):(\\w+): (.*): \\[(.*)\\] (.*)");
-		Matcher matcher = pattern.matcher(line);
-		while (matcher.find()) {
-			String filePath = matcher.group(1);
-			int lineNum = Integer.parseInt(matcher.group(2));
-			String ruleId = matcher.group(5);
-			String message = matcher.group(6);
-
-			InputFile inputFile = this.fileSystem.inputFile(this.fileSystem.predicates().hasAbsolutePath(filePath));
 
-			if (inputFile == null) {
-				LOGGER.warn("file not included in sonar {}", filePath);
-				continue;
-			}
-
-			Issuable issuable = this.resourcePerspectives.as(Issuable.class, inputFile);
-
-			if (issuable != null) {
-				Issue issue = issuable.newIssueBuilder()
-						.ruleKey(RuleKey.of(TailorRulesDefinition.REPOSITORY_KEY, ruleId)).line(lineNum)
-						.message(message).build();
+		if (LOGGER.isDebugEnabled()) {
+			long elapsedMillis = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+			LOGGER.debug("Parsed {} lines of {} in {} ms ({} lines/s)",
+					lines, reportFile.getName(), elapsedMillis, lines * 1000L / elapsedMillis);
+		}
+	}
 
-				try {
-					issuable.addIssue(issue);
-				} catch (Exception e) {
-					// Unable to add issue : probably because does not exist in the repository
-					LOGGER.warn(e.getMessage());
-				}
-			}
+	private void addIssue(final String filePath, final int line, final String ruleId, @Nullable final String message,
+			final List<ExternalIssue> issues) {
+		RuleKey ruleKey = this.ruleKeys.ruleKey(ruleId);
+		if (ruleKey != null) {
+			issues.add(new ExternalIssue(filePath, line, ruleKey, message));
 		}
 	}
 }
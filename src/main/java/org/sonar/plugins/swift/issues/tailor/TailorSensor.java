@@ -20,17 +20,21 @@
 package org.sonar.plugins.swift.issues.tailor;
 
 import java.io.File;
+import java.util.List;
 
-import org.apache.tools.ant.DirectoryScanner;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
 import org.sonar.plugins.swift.SwiftPlugin;
+import org.sonar.plugins.swift.issues.ActiveRuleKeys;
+import org.sonar.plugins.swift.issues.ExternalIssue;
+import org.sonar.plugins.swift.issues.ExternalIssuePublisher;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
 import org.sonar.plugins.swift.lang.core.Swift;
 
 /**
@@ -42,17 +46,20 @@ public class TailorSensor implements Sensor {
 	public static final String REPORT_PATH_KEY = SwiftPlugin.PROPERTY_PREFIX + ".tailor.report";
 	public static final String DEFAULT_REPORT_PATH = "sonar-reports/*tailor.txt";
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(TailorSensor.class);
-
 	private final Settings conf;
 	private final FileSystem fileSystem;
 	private final ResourcePerspectives resourcePerspectives;
+	private final SwiftFileIndex fileIndex;
+	private final ActiveRules activeRules;
 
 	public TailorSensor(final FileSystem fileSystem, final Settings config,
-			final ResourcePerspectives resourcePerspectives) {
+			final ResourcePerspectives resourcePerspectives, final SwiftFileIndex fileIndex,
+			final ActiveRules activeRules) {
 		this.conf = config;
 		this.fileSystem = fileSystem;
 		this.resourcePerspectives = resourcePerspectives;
+		this.fileIndex = fileIndex;
+		this.activeRules = activeRules;
 	}
 
 	@Override
@@ -64,26 +71,14 @@ public class TailorSensor implements Sensor {
 	@Override
 	public void analyse(final Project module, final SensorContext context) {
 
-		final String projectBaseDir = this.fileSystem.baseDir().getAbsolutePath();
-
-		TailorReportParser parser = new TailorReportParser(module, context, this.resourcePerspectives, this.fileSystem);
-		parseReportIn(projectBaseDir, parser);
-	}
-
-	private void parseReportIn(final String baseDir, final TailorReportParser parser) {
-
-		DirectoryScanner scanner = new DirectoryScanner();
-		scanner.setIncludes(new String[] { reportPath() });
-		scanner.setBasedir(baseDir);
-		scanner.setCaseSensitive(false);
-		scanner.scan();
-		String[] files = scanner.getIncludedFiles();
-
-		for (String filename : files) {
-			LOGGER.info("Processing Tailor report {}", filename);
-			parser.parseReport(new File(filename));
-		}
+		ActiveRuleKeys ruleKeys = new ActiveRuleKeys(this.activeRules, TailorRulesDefinition.REPOSITORY_KEY);
+		List<File> reports = ExternalIssueReports.find(this.fileSystem.baseDir(), reportPath());
+		List<ExternalIssue> issues = ExternalIssueReports.parse(reports, new TailorReportParser(ruleKeys), this.conf,
+				"Tailor");
+		ruleKeys.logSkipped();
 
+		new ExternalIssuePublisher(this.resourcePerspectives, this.fileIndex).publish(issues);
+		this.fileIndex.logStatistics();
 	}
 
 	private String reportPath() {
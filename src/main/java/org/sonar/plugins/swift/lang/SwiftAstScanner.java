@@ -23,6 +23,9 @@ package org.sonar.plugins.swift.lang;
 import com.sonar.sslr.impl.Parser;
 import org.sonar.plugins.swift.lang.api.SwiftGrammar;
 import org.sonar.plugins.swift.lang.api.SwiftMetric;
+import org.sonar.plugins.swift.lang.metrics.SwiftComplexityVisitor;
+import org.sonar.plugins.swift.lang.metrics.SwiftFunctionVisitor;
+import org.sonar.plugins.swift.lang.metrics.SwiftStatementVisitor;
 import org.sonar.plugins.swift.lang.parser.SwiftParser;
 import org.sonar.squidbridge.AstScanner;
 import org.sonar.squidbridge.CommentAnalyser;
@@ -88,7 +91,11 @@ public class SwiftAstScanner {
 
                     @Override
                     public String getContents(String comment) {
-                        return comment.startsWith("//") ? comment.substring(2) : comment.substring(2, comment.length() - 2);
+                        if (comment.startsWith("//") || !comment.endsWith("*/") || comment.length() < 4) {
+                            // Line comment, or block comment left open at the end of the file
+                            return comment.substring(2);
+                        }
+                        return comment.substring(2, comment.length() - 2);
                     }
                 });
 
@@ -102,6 +109,14 @@ public class SwiftAstScanner {
                 .withNoSonar(true)
                 .withIgnoreHeaderComment(conf.getIgnoreHeaderComments())
                 .build());
+        builder.withSquidAstVisitor(new SwiftFunctionVisitor());
+        builder.withSquidAstVisitor(new SwiftComplexityVisitor());
+        builder.withSquidAstVisitor(new SwiftStatementVisitor());
+
+        /* External visitors (checks, ...) */
+        for (SquidAstVisitor<SwiftGrammar> visitor : visitors) {
+            builder.withSquidAstVisitor(visitor);
+        }
 
         return builder.build();
     }
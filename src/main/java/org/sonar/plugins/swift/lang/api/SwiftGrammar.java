@@ -24,19 +24,135 @@ import com.sonar.sslr.api.Rule;
 
 public class SwiftGrammar extends Grammar {
 
-    public Rule identifierName;
-
-    // A.1 Lexical
+    // Lexical
 
+    public Rule identifier;
+    public Rule memberName;
     public Rule literal;
-    public Rule nullLiteral;
-    public Rule booleanLiteral;
-    public Rule stringLiteral;
+    public Rule balancedParentheses;
+    public Rule balancedBraces;
+
+    // Types
+
+    public Rule type;
+    public Rule typeUnit;
+    public Rule typeIdentifier;
+    public Rule tupleType;
+    public Rule tupleTypeElement;
+    public Rule collectionType;
+    public Rule functionTypeResult;
+    public Rule typeAnnotation;
+    public Rule typeInheritanceClause;
+    public Rule genericParameterClause;
+    public Rule genericParameter;
+    public Rule genericArgumentClause;
+    public Rule genericWhereClause;
+    public Rule genericRequirement;
+
+    // Expressions
+
+    public Rule expression;
+    public Rule conditionExpression;
+    public Rule tryOperator;
+    public Rule prefixExpression;
+    public Rule conditionPrefixExpression;
+    public Rule postfixExpression;
+    public Rule conditionPostfixExpression;
+    public Rule postfixSuffix;
+    public Rule conditionPostfixSuffix;
+    public Rule binaryExpressionTail;
+    public Rule conditionBinaryExpressionTail;
+    public Rule binaryOperator;
+    public Rule conditionalOperator;
+    public Rule typeCastingOperator;
+    public Rule primaryExpression;
+    public Rule parenthesizedExpression;
+    public Rule tupleElement;
+    public Rule collectionLiteral;
+    public Rule keyPathExpression;
+    public Rule implicitMemberExpression;
+    public Rule directiveExpression;
+    public Rule functionCallArguments;
+    public Rule argumentList;
+    public Rule argument;
+    public Rule subscriptArguments;
+    public Rule trailingClosures;
+    public Rule closureExpression;
+    public Rule closureSignature;
+    public Rule captureList;
+    public Rule captureItem;
+    public Rule closureParameterClause;
+    public Rule closureParameter;
+
+    // Patterns
+
+    public Rule pattern;
+    public Rule bindingPattern;
+    public Rule valueBindingPattern;
+
+    // Statements
 
     public Rule program;
+    public Rule topLevelElement;
+    public Rule statement;
+    public Rule codeBlock;
+    public Rule blockElement;
+    public Rule forInStatement;
+    public Rule whileStatement;
+    public Rule repeatWhileStatement;
+    public Rule ifStatement;
+    public Rule elseClause;
+    public Rule guardStatement;
+    public Rule conditionList;
+    public Rule condition;
+    public Rule optionalBindingCondition;
+    public Rule caseCondition;
+    public Rule switchStatement;
+    public Rule switchCase;
+    public Rule caseLabel;
+    public Rule caseItem;
+    public Rule defaultLabel;
+    public Rule caseBodyElement;
+    public Rule whereClause;
+    public Rule labeledStatement;
+    public Rule controlTransferStatement;
+    public Rule deferStatement;
+    public Rule doStatement;
+    public Rule catchClause;
+    public Rule compilerControlStatement;
+
+    // Declarations
+
+    public Rule declaration;
+    public Rule attribute;
+    public Rule declarationModifier;
+    public Rule importDeclaration;
+    public Rule variableDeclaration;
+    public Rule patternInitializer;
+    public Rule accessorBlock;
+    public Rule accessorClause;
+    public Rule typealiasDeclaration;
+    public Rule functionDeclaration;
+    public Rule functionName;
+    public Rule functionSignature;
+    public Rule parameterClause;
+    public Rule parameter;
+    public Rule initializerDeclaration;
+    public Rule deinitializerDeclaration;
+    public Rule subscriptDeclaration;
+    public Rule typeDeclaration;
+    public Rule typeBody;
+    public Rule typeMember;
+    public Rule enumCaseClause;
+    public Rule enumCase;
+    public Rule associatedtypeDeclaration;
+    public Rule operatorDeclaration;
+    public Rule precedenceGroupDeclaration;
+
+    // Error recovery: tokens skipped when no other rule matches
 
-    public Rule sourceElements;
-    public Rule sourceElement;
+    public Rule recoveredToken;
+    public Rule blockRecoveredToken;
 
     @Override
     public Rule getRootRule() {
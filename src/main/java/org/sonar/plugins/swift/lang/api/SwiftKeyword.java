@@ -26,20 +26,26 @@ import com.sonar.sslr.api.TokenType;
 public enum SwiftKeyword implements TokenType {
 
     // Annotations
-    UI_APPLICATION_MAIN_ANNOTATION("@UIApplicationMain"),
-    IBACTION_ANNOTATION("@IBAction"),
-    IBOUTLET_ANNOTATION("@IBOutlet"),
+    UI_APPLICATION_MAIN_ANNOTATION("@UIApplicationMain", false),
+    IBACTION_ANNOTATION("@IBAction", false),
+    IBOUTLET_ANNOTATION("@IBOutlet", false),
 
     // Declarations
+    ASSOCIATEDTYPE("associatedtype"),
     CLASS("class"),
     DEINIT("deinit"),
     ENUM("enum"),
     EXTENSION("extension"),
+    FILEPRIVATE("fileprivate"),
     FUNC("func"),
     IMPORT("import"),
     INIT("init"),
+    INOUT("inout"),
+    INTERNAL("internal"),
     LET("let"),
+    PRIVATE("private"),
     PROTOCOL("protocol"),
+    PUBLIC("public"),
     STATIC("static"),
     STRUCT("struct"),
     SUBSCRIPT("subscript"),
@@ -49,64 +55,81 @@ public enum SwiftKeyword implements TokenType {
     // Statments
     BREAK("break"),
     CASE("case"),
+    CATCH("catch"),
     CONTINUE("continue"),
     DEFAULT("default"),
+    DEFER("defer"),
     DO("do"),
     ELSE("else"),
     FALLTHROUGH("fallthrough"),
+    GUARD("guard"),
     IF("if"),
     IN("in"),
     FOR("for"),
+    REPEAT("repeat"),
     RETURN("return"),
     SWITCH("switch"),
+    THROW("throw"),
     WHERE("where"),
     WHILE("while"),
 
     // Expressions and types
     AS("as"),
-    DYNAMIC_TYPE("dynamicType"),
+    DYNAMIC_TYPE("dynamicType", false),
     IS("is"),
-    NEW("new"),
+    NEW("new", false),
+    NIL("nil"),
+    RETHROWS("rethrows"),
     SUPER("super"),
     SELF("self"),
     SELF_UPPERCASE("Self"),
-    TYPE("Type"),
-    COLUMN("__COLUMN__"),
-    FILE("__FILE__"),
-    FUNCTION("__FUNCTION__"),
-    AND("and"),
-    LINE("__LINE__"),
+    THROWS("throws"),
+    TRY("try"),
+    TYPE("Type", false),
+    COLUMN("__COLUMN__", false),
+    FILE("__FILE__", false),
+    FUNCTION("__FUNCTION__", false),
+    AND("and", false),
+    LINE("__LINE__", false),
 
     // Specials
-    ASSOCIATIVITY("associativity"),
-    DID_SET("didSet"),
-    GET("get"),
-    INFIX("infix"),
-    INOUT("inout"),
-    LEFT("left"),
-    MUTATING("mutating"),
-    NONE("none"),
-    NONMUTATING("nonmutating"),
-    OPERATOR("operator"),
-    OVERRIDE("override"),
-    POSTFIX("postfix"),
-    PRECEDENCE("precedence"),
-    PREFIX("prefix"),
-    RIGHT("right"),
-    SET("set"),
-    UNOWNED("unowned"),
-    UNOWNED_SAFE("unowned(safe)"),
-    UNOWNED_UNSAFE("unowned(unsafe)"),
-    WEAK("weak"),
-    WILL_SET("willSet"),
+    ASSOCIATIVITY("associativity", false),
+    DID_SET("didSet", false),
+    GET("get", false),
+    INFIX("infix", false),
+    LEFT("left", false),
+    MUTATING("mutating", false),
+    NONE("none", false),
+    NONMUTATING("nonmutating", false),
+    OPERATOR("operator", false),
+    OVERRIDE("override", false),
+    POSTFIX("postfix", false),
+    PRECEDENCE("precedence", false),
+    PREFIX("prefix", false),
+    RIGHT("right", false),
+    SET("set", false),
+    UNOWNED("unowned", false),
+    UNOWNED_SAFE("unowned(safe)", false),
+    UNOWNED_UNSAFE("unowned(unsafe)", false),
+    WEAK("weak", false),
+    WILL_SET("willSet", false),
 
     TRUE("true"),
-    FALSE("true");
+    FALSE("false");
 
     private final String value;
+    private final boolean reserved;
 
     SwiftKeyword(String value) {
+        this(value, true);
+    }
+
+    /**
+     * @param reserved false for the words which are keywords in some contexts only, and are lexed as identifiers
+     */
+    SwiftKeyword(String value, boolean reserved) {
         this.value = value;
+        this.reserved = reserved;
     }
 
     public String getName() {
@@ -117,6 +140,10 @@ public enum SwiftKeyword implements TokenType {
         return value;
     }
 
+    public boolean isReserved() {
+        return reserved;
+    }
+
     public boolean hasToBeSkippedFromAst(AstNode node) {
         return false;
     }
@@ -0,0 +1,399 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.lang.lexer;
+
+import com.google.common.collect.ImmutableMap;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Lexer;
+import org.sonar.plugins.swift.lang.api.SwiftKeyword;
+import org.sonar.plugins.swift.lang.api.SwiftPunctuator;
+import org.sonar.plugins.swift.lang.api.SwiftTokenType;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+import java.util.Map;
+
+/**
+ * Single forward pass Swift channel, replacing the former set of regular expression channels.
+ *
+ * Comments become trivia: line comments and block comments, which may be nested in Swift.
+ * The code is split into identifiers, reserved {@link SwiftKeyword keywords}, {@link SwiftPunctuator punctuators},
+ * operators, numbers and string literals. String literals (including multi-line, raw and interpolated ones) are
+ * single tokens. As in the Swift lexer, a '?' or '!' right after an operand is a postfix operator of its own, and
+ * the '>' closing generic arguments are split, so that the parser sees {@code Array<Array<Int>>?} as expected.
+ */
+public class SwiftChannel extends Channel<Lexer> {
+
+    private static final int EOF = -1;
+
+    private static final String OPERATOR_CHARACTERS = "/=-+!*%<>&|^~?";
+
+    private static final Map<String, TokenType> KEYWORDS;
+    private static final Map<Character, TokenType> PUNCTUATORS;
+
+    static {
+        ImmutableMap.Builder<String, TokenType> keywords = ImmutableMap.builder();
+        for (SwiftKeyword keyword : SwiftKeyword.values()) {
+            if (keyword.isReserved()) {
+                keywords.put(keyword.getValue(), keyword);
+            }
+        }
+        KEYWORDS = keywords.build();
+
+        ImmutableMap.Builder<Character, TokenType> punctuators = ImmutableMap.builder();
+        for (SwiftPunctuator punctuator : SwiftPunctuator.values()) {
+            if (punctuator != SwiftPunctuator.DOT && punctuator != SwiftPunctuator.HASH) {
+                punctuators.put(punctuator.getValue().charAt(0), punctuator);
+            }
+        }
+        PUNCTUATORS = punctuators.build();
+    }
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Override
+    public boolean consume(CodeReader code, Lexer lexer) {
+
+        int c = code.peek();
+        if (c == EOF) {
+            return false;
+        }
+
+        if (Character.isWhitespace(c)) {
+            code.pop();
+            return true;
+        }
+
+        int line = code.getLinePosition();
+        int column = code.getColumnPosition();
+        buffer.setLength(0);
+
+        if (c == '/' && code.charAt(1) == '/') {
+            readLineComment(code);
+            addComment(lexer, line, column);
+        } else if (c == '/' && code.charAt(1) == '*') {
+            readBlockComment(code);
+            addComment(lexer, line, column);
+        } else if (c == '"' || c == '#' && rawStringHashes(code) > 0) {
+            int hashes = rawStringHashes(code);
+            pop(code, hashes);
+            readString(code, hashes);
+            addToken(lexer, SwiftTokenType.STRING_LITERAL, buffer.toString(), line, column);
+        } else if (isIdentifierStart(c) || c == '#' && isIdentifierStart(code.charAt(1))) {
+            // "#if", "#selector" and the other directives are single identifiers
+            pop(code);
+            readIdentifierPart(code);
+            String value = buffer.toString();
+            TokenType keyword = KEYWORDS.get(value);
+            addToken(lexer, keyword == null ? GenericTokenType.IDENTIFIER : keyword, value, line, column);
+        } else if (c == '`') {
+            readEscapedIdentifier(code);
+            addToken(lexer, GenericTokenType.IDENTIFIER, buffer.toString(), line, column);
+        } else if (Character.isDigit(c)) {
+            readNumber(code);
+            addToken(lexer, SwiftTokenType.NUMERIC_LITERAL, buffer.toString(), line, column);
+        } else if (c == '.' && code.charAt(1) != '.') {
+            pop(code);
+            addToken(lexer, SwiftPunctuator.DOT, ".", line, column);
+        } else if (c == '.' || isOperatorCharacter(c)) {
+            boolean afterOperand = isOperandEnd(code.lastChar());
+            readOperator(code);
+            addOperators(lexer, afterOperand, line, column);
+        } else if (PUNCTUATORS.containsKey((char) c)) {
+            pop(code);
+            addToken(lexer, PUNCTUATORS.get((char) c), buffer.toString(), line, column);
+        } else if (c == '#') {
+            pop(code);
+            addToken(lexer, SwiftPunctuator.HASH, "#", line, column);
+        } else {
+            pop(code);
+            addToken(lexer, GenericTokenType.UNKNOWN_CHAR, buffer.toString(), line, column);
+        }
+
+        return true;
+    }
+
+    private void readLineComment(CodeReader code) {
+
+        while (code.peek() != EOF && !isNewLine(code.peek())) {
+            pop(code);
+        }
+    }
+
+    private void readBlockComment(CodeReader code) {
+
+        pop(code, 2);
+        int depth = 1;
+
+        while (depth > 0 && code.peek() != EOF) {
+            if (code.peek() == '/' && code.charAt(1) == '*') {
+                pop(code, 2);
+                depth++;
+            } else if (code.peek() == '*' && code.charAt(1) == '/') {
+                pop(code, 2);
+                depth--;
+            } else {
+                pop(code);
+            }
+        }
+    }
+
+    private void readIdentifierPart(CodeReader code) {
+
+        while (code.peek() != EOF && Character.isJavaIdentifierPart(code.peek())) {
+            pop(code);
+        }
+    }
+
+    private void readEscapedIdentifier(CodeReader code) {
+
+        pop(code);
+        while (code.peek() != EOF && !isNewLine(code.peek())) {
+            if (code.peek() == '`') {
+                pop(code);
+                return;
+            }
+            pop(code);
+        }
+    }
+
+    /**
+     * Reads integer and floating point literals in any base, underscores and exponents included.
+     */
+    private void readNumber(CodeReader code) {
+
+        boolean hexadecimal = code.peek() == '0' && (code.charAt(1) == 'x' || code.charAt(1) == 'X');
+        while (true) {
+            int c = code.peek();
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                pop(code);
+            } else if (c == '.' && Character.isDigit(code.charAt(1))) {
+                pop(code);
+            } else if ((c == '+' || c == '-') && isExponentMarker(buffer.charAt(buffer.length() - 1), hexadecimal)) {
+                pop(code);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isExponentMarker(char c, boolean hexadecimal) {
+
+        return hexadecimal ? c == 'p' || c == 'P' : c == 'e' || c == 'E';
+    }
+
+    /**
+     * Reads a run of operator characters. Dots are part of the operator only when it starts with a dot.
+     */
+    private void readOperator(CodeReader code) {
+
+        boolean dots = code.peek() == '.';
+        while (code.peek() != EOF && !isCommentStart(code)
+                && (isOperatorCharacter(code.peek()) || dots && code.peek() == '.')) {
+            pop(code);
+        }
+    }
+
+    /**
+     * Reads a string literal, starting on its opening quote. Single line literals stop at the end of the line
+     * when they are not terminated.
+     */
+    private void readString(CodeReader code, int hashes) {
+
+        boolean multiLine = code.charAt(1) == '"' && code.charAt(2) == '"';
+        int quotes = multiLine ? 3 : 1;
+        pop(code, quotes);
+
+        while (code.peek() != EOF) {
+            int c = code.peek();
+
+            if (!multiLine && isNewLine(c)) {
+                return;
+            } else if (c == '\\' && hasHashes(code, 1, hashes)) {
+                pop(code, 1 + hashes);
+                if (code.peek() == '(') {
+                    readInterpolation(code);
+                } else if (code.peek() != EOF) {
+                    pop(code);
+                }
+            } else if (c == '"' && isStringEnd(code, quotes, hashes)) {
+                pop(code, quotes + hashes);
+                return;
+            } else {
+                pop(code);
+            }
+        }
+    }
+
+    private void readInterpolation(CodeReader code) {
+
+        int depth = 0;
+
+        while (code.peek() != EOF && !isNewLine(code.peek())) {
+            int c = code.peek();
+
+            if (c == '"') {
+                readString(code, 0);
+            } else {
+                pop(code);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isStringEnd(CodeReader code, int quotes, int hashes) {
+
+        for (int i = 0; i < quotes; i++) {
+            if (code.charAt(i) != '"') {
+                return false;
+            }
+        }
+        return hasHashes(code, quotes, hashes);
+    }
+
+    private static boolean hasHashes(CodeReader code, int offset, int hashes) {
+
+        for (int i = 0; i < hashes; i++) {
+            if (code.charAt(offset + i) != '#') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of '#' delimiting a raw string literal starting at the current position, 0 if there is none.
+     */
+    private static int rawStringHashes(CodeReader code) {
+
+        int hashes = 0;
+        while (code.charAt(hashes) == '#') {
+            hashes++;
+        }
+        return code.charAt(hashes) == '"' ? hashes : 0;
+    }
+
+    private static boolean isIdentifierStart(int c) {
+
+        return c != EOF && Character.isJavaIdentifierStart(c);
+    }
+
+    private static boolean isOperatorCharacter(int c) {
+
+        return c != EOF && OPERATOR_CHARACTERS.indexOf(c) >= 0;
+    }
+
+    /**
+     * @return true when the character ends an operand, so that a '?' or '!' right after it is a postfix operator
+     */
+    private static boolean isOperandEnd(int c) {
+
+        return c != EOF && (Character.isJavaIdentifierPart(c) || c == ')' || c == ']' || c == '}' || c == '"' || c == '`');
+    }
+
+    private static boolean isCommentStart(CodeReader code) {
+
+        return code.peek() == '/' && (code.charAt(1) == '/' || code.charAt(1) == '*');
+    }
+
+    private static boolean isNewLine(int c) {
+
+        return c == '\n' || c == '\r';
+    }
+
+    private void pop(CodeReader code) {
+
+        buffer.append((char) code.pop());
+    }
+
+    private void pop(CodeReader code, int count) {
+
+        for (int i = 0; i < count; i++) {
+            pop(code);
+        }
+    }
+
+    private void addComment(Lexer lexer, int line, int column) {
+
+        Token token = Token.builder()
+                .setType(GenericTokenType.COMMENT)
+                .setValueAndOriginalValue(buffer.toString())
+                .setURI(lexer.getURI())
+                .setLine(line)
+                .setColumn(column)
+                .build();
+        lexer.addTrivia(Trivia.createComment(token));
+    }
+
+    /**
+     * Adds the operators of the buffered run: postfix '?' and '!' and closing '>' are tokens of their own.
+     */
+    private void addOperators(Lexer lexer, boolean afterOperand, int line, int column) {
+
+        boolean postfix = afterOperand;
+        int i = 0;
+        while (i < buffer.length()) {
+            char c = buffer.charAt(i);
+            if (postfix && (c == '?' || c == '!') && !"=".equals(buffer.substring(i + 1))) {
+                addToken(lexer, SwiftTokenType.OPERATOR, String.valueOf(c), line, column + i);
+                i++;
+            } else if (c == '>' && isClosingAngles(i)) {
+                addToken(lexer, SwiftTokenType.OPERATOR, ">", line, column + i);
+                postfix = true;
+                i++;
+            } else {
+                addToken(lexer, SwiftTokenType.OPERATOR, buffer.substring(i), line, column + i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true when the buffer only holds '>', '?' and '!' from the index, as in {@code Set<Array<Int>>?}
+     */
+    private boolean isClosingAngles(int from) {
+
+        for (int i = from; i < buffer.length(); i++) {
+            char c = buffer.charAt(i);
+            if (c != '>' && c != '?' && c != '!') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addToken(Lexer lexer, TokenType type, String value, int line, int column) {
+
+        lexer.addToken(Token.builder()
+                .setType(type)
+                .setValueAndOriginalValue(value)
+                .setURI(lexer.getURI())
+                .setLine(line)
+                .setColumn(column)
+                .build());
+    }
+}
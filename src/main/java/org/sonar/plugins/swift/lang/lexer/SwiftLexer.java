@@ -21,13 +21,8 @@ package org.sonar.plugins.swift.lang.lexer;
 
 
 import com.sonar.sslr.impl.Lexer;
-import com.sonar.sslr.impl.channel.BlackHoleChannel;
 import org.sonar.plugins.swift.lang.SwiftConfiguration;
 
-import static com.sonar.sslr.api.GenericTokenType.LITERAL;
-import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.commentRegexp;
-import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.regexp;
-
 public class SwiftLexer {
 
     private SwiftLexer() {
@@ -44,14 +39,8 @@ public class SwiftLexer {
 
                 .withFailIfNoChannelToConsumeOneCharacter(false)
 
-                        // Comments
-                .withChannel(commentRegexp("//[^\\n\\r]*+"))
-                .withChannel(commentRegexp("/\\*[\\s\\S]*?\\*/"))
-
-                        // All other tokens
-                .withChannel(regexp(LITERAL, "[^\r\n\\s/]+"))
-
-                .withChannel(new BlackHoleChannel("[\\s]"))
+                        // Comments, string literals and all other tokens in one pass
+                .withChannel(new SwiftChannel())
 
                 .build();
     }
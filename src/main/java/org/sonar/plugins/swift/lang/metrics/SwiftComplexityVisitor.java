@@ -0,0 +1,73 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.lang.metrics;
+
+import com.sonar.sslr.api.AstNode;
+import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+import org.sonar.plugins.swift.lang.api.SwiftMetric;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+/**
+ * Cyclomatic complexity, counted in {@link SwiftMetric#COMPLEXITY} much like Lizard did: one for each function, plus
+ * one for each if, guard, for, while, repeat, case label, catch clause, ternary operator, {@code &&} and {@code ||}.
+ * Unlike Lizard, optional chaining is not counted as a branch.
+ *
+ * Points go to the function being visited, see {@link SwiftFunctionVisitor}, or to the file for top level code.
+ */
+public class SwiftComplexityVisitor extends SquidAstVisitor<SwiftGrammar> {
+
+    @Override
+    public void init() {
+        SwiftGrammar grammar = getContext().getGrammar();
+        subscribeTo(
+                grammar.functionDeclaration,
+                grammar.initializerDeclaration,
+                grammar.deinitializerDeclaration,
+                grammar.subscriptDeclaration,
+                grammar.ifStatement,
+                grammar.guardStatement,
+                grammar.forInStatement,
+                grammar.whileStatement,
+                grammar.repeatWhileStatement,
+                grammar.caseLabel,
+                grammar.catchClause,
+                grammar.conditionalOperator,
+                grammar.binaryOperator);
+    }
+
+    @Override
+    public void visitNode(AstNode astNode) {
+
+        SwiftGrammar grammar = getContext().getGrammar();
+
+        if (astNode.is(grammar.binaryOperator)) {
+            String operator = astNode.getTokenValue();
+            if (!"&&".equals(operator) && !"||".equals(operator)) {
+                return;
+            }
+        } else if (astNode.is(grammar.functionDeclaration, grammar.initializerDeclaration,
+                grammar.deinitializerDeclaration, grammar.subscriptDeclaration)
+                && !SwiftFunctionVisitor.isFunction(astNode, grammar)) {
+            return;
+        }
+
+        getContext().peekSourceCode().add(SwiftMetric.COMPLEXITY, 1);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.lang.metrics;
+
+import com.sonar.sslr.api.AstNode;
+import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+import org.sonar.plugins.swift.lang.api.SwiftMetric;
+import org.sonar.squidbridge.SquidAstVisitor;
+import org.sonar.squidbridge.api.SourceCode;
+import org.sonar.squidbridge.api.SourceFile;
+import org.sonar.squidbridge.api.SourceFunction;
+
+/**
+ * Turns each function, initializer, deinitializer and subscript with a body into a {@link SourceFunction} counted
+ * in {@link SwiftMetric#FUNCTIONS}. The measures computed while it is visited are kept on the function, then added
+ * up to its file. Closures are part of the function they are written in.
+ */
+public class SwiftFunctionVisitor extends SquidAstVisitor<SwiftGrammar> {
+
+    @Override
+    public void init() {
+        SwiftGrammar grammar = getContext().getGrammar();
+        subscribeTo(grammar.functionDeclaration, grammar.initializerDeclaration, grammar.deinitializerDeclaration,
+                grammar.subscriptDeclaration);
+    }
+
+    @Override
+    public void visitNode(AstNode astNode) {
+
+        if (!isFunction(astNode, getContext().getGrammar())) {
+            return;
+        }
+
+        SourceCode parent = getContext().peekSourceCode();
+        SourceFile file = parent instanceof SourceFile ? (SourceFile) parent : parent.getParent(SourceFile.class);
+        SourceFunction function = new SourceFunction(file, name(astNode), astNode.getTokenLine());
+        function.setStartAtLine(astNode.getTokenLine());
+        function.setMeasure(SwiftMetric.FUNCTIONS, 1);
+        getContext().addSourceCode(function);
+    }
+
+    @Override
+    public void leaveNode(AstNode astNode) {
+
+        if (isFunction(astNode, getContext().getGrammar())) {
+            getContext().peekSourceCode().setEndAtLine(astNode.getLastToken().getLine());
+            getContext().popSourceCode();
+        }
+    }
+
+    /**
+     * @return true for the declarations with a body: protocol requirements are not functions
+     */
+    static boolean isFunction(AstNode astNode, SwiftGrammar grammar) {
+
+        if (astNode.hasDirectChildren(grammar.codeBlock)) {
+            return true;
+        }
+        AstNode accessorBlock = astNode.getFirstChild(grammar.accessorBlock);
+        return accessorBlock != null && accessorBlock.getFirstDescendant(grammar.codeBlock) != null;
+    }
+
+    private String name(AstNode astNode) {
+
+        AstNode functionName = astNode.getFirstChild(getContext().getGrammar().functionName);
+        return functionName != null ? functionName.getTokenValue() : astNode.getTokenValue();
+    }
+}
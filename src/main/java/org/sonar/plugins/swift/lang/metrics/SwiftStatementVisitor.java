@@ -0,0 +1,54 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.lang.metrics;
+
+import com.sonar.sslr.api.AstNode;
+import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+import org.sonar.plugins.swift.lang.api.SwiftMetric;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+/**
+ * Counts the statements of the top level code and of the code blocks in {@link SwiftMetric#STATEMENTS}. Declarations
+ * are not statements, except the constants and variables declared in code; compiler control directives and empty
+ * statements are not counted either. Type members are declarations, not statements.
+ *
+ * Statements go to the function being visited, see {@link SwiftFunctionVisitor}, or to the file for top level code.
+ */
+public class SwiftStatementVisitor extends SquidAstVisitor<SwiftGrammar> {
+
+    @Override
+    public void init() {
+        subscribeTo(getContext().getGrammar().statement);
+    }
+
+    @Override
+    public void visitNode(AstNode astNode) {
+
+        SwiftGrammar grammar = getContext().getGrammar();
+        AstNode statement = astNode.getFirstChild();
+
+        if (statement.is(grammar.compilerControlStatement) || ";".equals(statement.getTokenValue()) && !statement.hasChildren()
+                || statement.is(grammar.declaration) && statement.getFirstChild(grammar.variableDeclaration) == null) {
+            return;
+        }
+
+        getContext().peekSourceCode().add(SwiftMetric.STATEMENTS, 1);
+    }
+}
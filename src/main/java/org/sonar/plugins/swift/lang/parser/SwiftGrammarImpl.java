@@ -19,15 +19,360 @@
  */
 package org.sonar.plugins.swift.lang.parser;
 
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.impl.matcher.RuleDefinition;
 import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+import org.sonar.plugins.swift.lang.api.SwiftKeyword;
+import org.sonar.plugins.swift.lang.api.SwiftTokenType;
 
 import static com.sonar.sslr.api.GenericTokenType.EOF;
-import static com.sonar.sslr.api.GenericTokenType.LITERAL;
+import static com.sonar.sslr.api.GenericTokenType.IDENTIFIER;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Advanced.adjacent;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Advanced.anyToken;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Advanced.isOneOfThem;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Predicate.next;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Predicate.not;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Standard.and;
 import static com.sonar.sslr.impl.matcher.GrammarFunctions.Standard.o2n;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Standard.one2n;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Standard.opt;
+import static com.sonar.sslr.impl.matcher.GrammarFunctions.Standard.or;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.AS;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.ASSOCIATEDTYPE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.BREAK;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.CASE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.CATCH;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.CLASS;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.CONTINUE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.DEFAULT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.DEFER;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.DEINIT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.DO;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.ELSE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.ENUM;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.EXTENSION;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.FALLTHROUGH;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.FALSE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.FILEPRIVATE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.FOR;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.FUNC;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.GUARD;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.IF;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.IMPORT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.IN;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.INIT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.INOUT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.INTERNAL;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.IS;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.LET;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.NIL;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.PRIVATE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.PROTOCOL;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.PUBLIC;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.REPEAT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.RETHROWS;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.RETURN;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.SELF;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.SELF_UPPERCASE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.STATIC;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.STRUCT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.SUBSCRIPT;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.SUPER;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.SWITCH;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.THROW;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.THROWS;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.TRUE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.TRY;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.TYPEALIAS;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.VAR;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.WHERE;
+import static org.sonar.plugins.swift.lang.api.SwiftKeyword.WHILE;
+import static org.sonar.plugins.swift.lang.api.SwiftTokenType.NUMERIC_LITERAL;
+import static org.sonar.plugins.swift.lang.api.SwiftTokenType.STRING_LITERAL;
 
+/**
+ * Swift grammar, lenient enough to parse the code of any Swift version into declarations, statements and expressions.
+ *
+ * The grammar does not validate the code: a token which does not start any statement is consumed by
+ * {@link #recoveredToken} (or {@link #blockRecoveredToken} in a block), and parsing goes on with the next one.
+ *
+ * Conditions of if, guard, while, for-in and switch statements are parsed with the condition* variants of the
+ * expression rules, which do not accept trailing closures: in {@code if isValid { ... }} the block is the body
+ * of the statement, not a closure passed to {@code isValid}.
+ *
+ * The rules which are tried again at the same position on backtracking are memoized, so that parsing time stays
+ * linear in the number of tokens.
+ */
 public class SwiftGrammarImpl extends SwiftGrammar {
 
     public SwiftGrammarImpl() {
-        program.is(o2n(LITERAL), EOF);
+        lexical();
+        types();
+        expressions();
+        patterns();
+        statements();
+        declarations();
+
+        memoize(type, expression, conditionExpression, prefixExpression, conditionPrefixExpression,
+                postfixExpression, conditionPostfixExpression, primaryExpression, closureExpression,
+                pattern, statement, declaration, codeBlock);
+    }
+
+    private void lexical() {
+        identifier.is(IDENTIFIER);
+        // names after a dot and argument labels may be keywords
+        memberName.is(or(IDENTIFIER, isOneOfThem(SwiftKeyword.values()), NUMERIC_LITERAL));
+        literal.is(or(NUMERIC_LITERAL, STRING_LITERAL, TRUE, FALSE, NIL));
+
+        balancedParentheses.is("(", o2n(or(balancedParentheses, and(not(")"), not(EOF), anyToken()))), ")");
+        balancedBraces.is("{", o2n(or(balancedBraces, and(not("}"), not(EOF), anyToken()))), "}");
+    }
+
+    private void types() {
+        type.is(typeUnit, o2n("&", typeUnit), opt(functionTypeResult));
+        typeUnit.is(
+                o2n(attribute),
+                opt(or("some", "any", INOUT)),
+                or(tupleType, collectionType, typeIdentifier, CLASS),
+                o2n(or(adjacent("?"), adjacent("!"), and(".", or("Type", "Protocol")))));
+        typeIdentifier.is(
+                or(IDENTIFIER, SELF_UPPERCASE), opt(genericArgumentClause),
+                o2n(".", not(or("Type", "Protocol")), memberName, opt(genericArgumentClause)));
+        tupleType.is("(", opt(tupleTypeElement, o2n(",", tupleTypeElement)), ")");
+        tupleTypeElement.is(opt(memberName, opt(memberName), ":"), type, opt("..."));
+        collectionType.is("[", type, opt(":", type), "]");
+        functionTypeResult.is(opt("async"), opt(or(THROWS, RETHROWS)), "->", type);
+
+        typeAnnotation.is(":", type);
+        typeInheritanceClause.is(":", type, o2n(",", type));
+
+        genericParameterClause.is("<", genericParameter, o2n(",", genericParameter), ">");
+        genericParameter.is(opt("each"), IDENTIFIER, opt(":", type));
+        genericArgumentClause.is("<", type, o2n(",", type), ">");
+        genericWhereClause.is(WHERE, genericRequirement, o2n(",", genericRequirement));
+        genericRequirement.is(type, or(":", "=="), type);
+    }
+
+    private void expressions() {
+        expression.is(opt(tryOperator), prefixExpression, o2n(binaryExpressionTail));
+        tryOperator.is(or(and(TRY, opt(or(adjacent("?"), adjacent("!"))), opt("await")), and("await", opt(TRY))));
+        prefixExpression.is(opt(not("="), not("?"), SwiftTokenType.OPERATOR), postfixExpression);
+        postfixExpression.is(primaryExpression, o2n(postfixSuffix));
+        postfixSuffix.is(or(conditionPostfixSuffix, trailingClosures));
+        binaryExpressionTail.is(or(
+                and(conditionalOperator, opt(tryOperator), prefixExpression),
+                typeCastingOperator,
+                and(binaryOperator, opt(tryOperator), prefixExpression)));
+
+        // same rules without trailing closures
+        conditionExpression.is(opt(tryOperator), conditionPrefixExpression, o2n(conditionBinaryExpressionTail));
+        conditionPrefixExpression.is(opt(not("="), not("?"), SwiftTokenType.OPERATOR), conditionPostfixExpression);
+        conditionPostfixExpression.is(primaryExpression, o2n(conditionPostfixSuffix));
+        conditionPostfixSuffix.is(or(
+                and(".", memberName, opt(adjacent("<"), genericArgumentClause)),
+                functionCallArguments,
+                subscriptArguments,
+                adjacent("?"),
+                adjacent("!"),
+                and(adjacent("..."), next(or(")", "]", ",")))));
+        conditionBinaryExpressionTail.is(or(
+                and(conditionalOperator, opt(tryOperator), conditionPrefixExpression),
+                typeCastingOperator,
+                and(binaryOperator, opt(tryOperator), conditionPrefixExpression)));
+
+        conditionalOperator.is("?", expression, ":");
+        typeCastingOperator.is(or(IS, and(AS, opt(or(adjacent("?"), adjacent("!"))))), type);
+        // '>' are split by the lexer: ">>" is read back as one operator
+        binaryOperator.is(or(and(">", o2n(adjacent(">"))), and(not(or("?", "->")), SwiftTokenType.OPERATOR)));
+
+        primaryExpression.is(or(
+                literal,
+                closureExpression,
+                parenthesizedExpression,
+                collectionLiteral,
+                keyPathExpression,
+                implicitMemberExpression,
+                directiveExpression,
+                and(or(IDENTIFIER, SELF, SELF_UPPERCASE, SUPER, INIT), opt(adjacent("<"), genericArgumentClause))));
+        parenthesizedExpression.is("(", opt(tupleElement, o2n(",", tupleElement)), ")");
+        tupleElement.is(opt(memberName, ":"), or(valueBindingPattern, expression));
+        collectionLiteral.is("[", opt(or(
+                ":",
+                and(expression, opt(":", expression), o2n(",", expression, opt(":", expression)), opt(",")))), "]");
+        keyPathExpression.is("\\", opt(typeIdentifier), o2n(or(
+                and(".", memberName),
+                adjacent("?"),
+                adjacent("!"),
+                subscriptArguments)));
+        implicitMemberExpression.is(".", memberName);
+        directiveExpression.is(or("#available", "#unavailable", "#selector", "#keyPath"), balancedParentheses);
+
+        functionCallArguments.is(adjacent("("), opt(argumentList), ")");
+        subscriptArguments.is(adjacent("["), opt(argumentList), "]");
+        argumentList.is(argument, o2n(",", argument));
+        // "reduce(0, +)" passes an operator
+        argument.is(opt(memberName, ":"), or(valueBindingPattern, expression, SwiftTokenType.OPERATOR));
+        trailingClosures.is(closureExpression, o2n(memberName, ":", closureExpression));
+
+        closureExpression.is("{", opt(closureSignature), o2n(blockElement), "}");
+        closureSignature.is(
+                opt(captureList),
+                or(closureParameterClause, next(IN)),
+                opt("async"), opt(or(THROWS, RETHROWS)), opt("->", type),
+                IN);
+        captureList.is("[", captureItem, o2n(",", captureItem), "]");
+        captureItem.is(opt(or("weak", "unowned"), opt(adjacent("("), IDENTIFIER, ")")), expression);
+        closureParameterClause.is(or(
+                and("(", opt(closureParameter, o2n(",", closureParameter)), ")"),
+                and(IDENTIFIER, o2n(",", IDENTIFIER))));
+        closureParameter.is(memberName, opt(memberName), opt(typeAnnotation), opt("..."));
+    }
+
+    private void patterns() {
+        // no assignment in a pattern: "if case .some(let x)? = value" keeps its "="
+        pattern.is(or(
+                valueBindingPattern,
+                and(IS, type),
+                and(conditionPrefixExpression, o2n(not("="), conditionBinaryExpressionTail))));
+        valueBindingPattern.is(or(LET, VAR), pattern);
+        // names bound by declarations and optional bindings
+        bindingPattern.is(or(IDENTIFIER, SELF, and("(", opt(bindingPattern, o2n(",", bindingPattern)), ")")));
+    }
+
+    private void statements() {
+        program.is(o2n(topLevelElement), EOF);
+        topLevelElement.is(or(statement, recoveredToken));
+
+        statement.is(or(
+                declaration,
+                forInStatement,
+                whileStatement,
+                repeatWhileStatement,
+                ifStatement,
+                guardStatement,
+                switchStatement,
+                labeledStatement,
+                controlTransferStatement,
+                deferStatement,
+                doStatement,
+                compilerControlStatement,
+                expression,
+                ";"), opt(";"));
+
+        codeBlock.is("{", o2n(blockElement), "}");
+        blockElement.is(or(statement, blockRecoveredToken));
+
+        forInStatement.is(FOR, opt(CASE), opt(tryOperator), pattern, opt(typeAnnotation), IN, conditionExpression,
+                opt(whereClause), codeBlock);
+        whileStatement.is(WHILE, conditionList, codeBlock);
+        repeatWhileStatement.is(REPEAT, codeBlock, WHILE, expression);
+
+        ifStatement.is(IF, conditionList, codeBlock, opt(elseClause));
+        elseClause.is(ELSE, or(ifStatement, codeBlock));
+        guardStatement.is(GUARD, conditionList, ELSE, codeBlock);
+        conditionList.is(condition, o2n(",", condition));
+        condition.is(or(caseCondition, optionalBindingCondition, conditionExpression));
+        optionalBindingCondition.is(or(LET, VAR), bindingPattern, opt(typeAnnotation), opt("=", conditionExpression));
+        caseCondition.is(CASE, pattern, opt(typeAnnotation), "=", conditionExpression);
+
+        switchStatement.is(SWITCH, conditionExpression, "{", o2n(or(switchCase, compilerControlStatement)), "}");
+        switchCase.is(or(caseLabel, defaultLabel), o2n(caseBodyElement));
+        caseLabel.is(o2n(attribute), CASE, caseItem, o2n(",", caseItem), ":");
+        caseItem.is(pattern, opt(whereClause));
+        defaultLabel.is(o2n(attribute), DEFAULT, ":");
+        caseBodyElement.is(not(or(CASE, DEFAULT, and("@", "unknown"))), not(or("#else", "#elseif", "#endif")), blockElement);
+        whereClause.is(WHERE, conditionExpression);
+
+        labeledStatement.is(IDENTIFIER, ":", or(forInStatement, whileStatement, repeatWhileStatement, ifStatement,
+                switchStatement, doStatement));
+        controlTransferStatement.is(or(
+                and(or(BREAK, CONTINUE), opt(IDENTIFIER)),
+                FALLTHROUGH,
+                and(RETURN, opt(not("}"), expression)),
+                and(THROW, expression)));
+        deferStatement.is(DEFER, codeBlock);
+        doStatement.is(DO, opt(THROWS, opt(balancedParentheses)), codeBlock, o2n(catchClause));
+        catchClause.is(CATCH, opt(not("{"), pattern, o2n(",", pattern)), opt(whereClause), codeBlock);
+        compilerControlStatement.is(or(
+                and(or("#if", "#elseif"), conditionExpression),
+                "#else",
+                "#endif",
+                and(or("#warning", "#error", "#sourceLocation"), balancedParentheses)));
+
+        recoveredToken.is(not(EOF), anyToken());
+        blockRecoveredToken.is(or(balancedBraces, and(not("}"), not(EOF), anyToken())));
+    }
+
+    private void declarations() {
+        declaration.is(o2n(attribute), o2n(declarationModifier), or(
+                importDeclaration,
+                variableDeclaration,
+                typealiasDeclaration,
+                functionDeclaration,
+                initializerDeclaration,
+                deinitializerDeclaration,
+                subscriptDeclaration,
+                typeDeclaration,
+                enumCaseClause,
+                associatedtypeDeclaration,
+                operatorDeclaration,
+                precedenceGroupDeclaration));
+
+        attribute.is("@", memberName, opt(adjacent("("), balancedParentheses));
+        declarationModifier.is(or(
+                and(CLASS, next(or(FUNC, VAR, LET, SUBSCRIPT, "final", "override", "open", PUBLIC, INTERNAL))),
+                and(or(PRIVATE, FILEPRIVATE, INTERNAL, PUBLIC, "open"), opt(adjacent("("), "set", ")")),
+                and(or("unowned", "weak"), opt(adjacent("("), IDENTIFIER, ")")),
+                STATIC, "final", "override", "mutating", "nonmutating", "lazy", "optional", "required",
+                "convenience", "dynamic", "indirect", "prefix", "postfix", "infix", "nonisolated", "isolated"));
+
+        importDeclaration.is(IMPORT, opt(or(TYPEALIAS, STRUCT, CLASS, ENUM, PROTOCOL, LET, VAR, FUNC), next(IDENTIFIER)),
+                memberName, o2n(".", memberName));
+
+        variableDeclaration.is(or(LET, VAR), patternInitializer, o2n(",", patternInitializer));
+        // in "var count = 0 { didSet { ... } }" the block holds observers, not a trailing closure
+        patternInitializer.is(bindingPattern, opt(typeAnnotation), or(
+                and("=", conditionExpression, "{", one2n(accessorClause), "}"),
+                and(opt("=", expression), opt(accessorBlock))));
+        accessorBlock.is(or(and("{", one2n(accessorClause), "}"), codeBlock));
+        accessorClause.is(o2n(attribute), opt(or("mutating", "nonmutating")),
+                or("get", "set", "willSet", "didSet", "_read", "_modify"),
+                opt(adjacent("("), IDENTIFIER, ")"), opt("async"), opt(THROWS), opt(codeBlock));
+
+        typealiasDeclaration.is(TYPEALIAS, IDENTIFIER, opt(genericParameterClause), "=", type);
+
+        functionDeclaration.is(FUNC, functionName, opt(genericParameterClause), functionSignature,
+                opt(genericWhereClause), opt(codeBlock));
+        functionName.is(or(IDENTIFIER, and(">", o2n(adjacent(">"))), SwiftTokenType.OPERATOR, "..."));
+        functionSignature.is(parameterClause, opt("async"), opt(or(THROWS, RETHROWS)), opt("->", type));
+        parameterClause.is("(", opt(parameter, o2n(",", parameter)), ")");
+        parameter.is(memberName, opt(memberName), typeAnnotation, opt("..."), opt("=", expression));
+
+        initializerDeclaration.is(INIT, opt(or(adjacent("?"), adjacent("!"))), opt(genericParameterClause),
+                parameterClause, opt("async"), opt(or(THROWS, RETHROWS)), opt(genericWhereClause), opt(codeBlock));
+        deinitializerDeclaration.is(DEINIT, codeBlock);
+        subscriptDeclaration.is(SUBSCRIPT, opt(genericParameterClause), parameterClause, "->", type,
+                opt(genericWhereClause), opt(accessorBlock));
+
+        typeDeclaration.is(
+                or(and(or(CLASS, STRUCT, ENUM, PROTOCOL, "actor"), IDENTIFIER, opt(genericParameterClause)), and(EXTENSION, type)),
+                opt(typeInheritanceClause),
+                opt(genericWhereClause),
+                typeBody);
+        typeBody.is("{", o2n(typeMember), "}");
+        typeMember.is(or(declaration, compilerControlStatement, ";", blockRecoveredToken));
+        enumCaseClause.is(CASE, enumCase, o2n(",", enumCase));
+        enumCase.is(memberName, opt(tupleType), opt("=", expression));
+        associatedtypeDeclaration.is(ASSOCIATEDTYPE, IDENTIFIER, opt(typeInheritanceClause), opt("=", type),
+                opt(genericWhereClause));
+        operatorDeclaration.is("operator", or(SwiftTokenType.OPERATOR, and(">", o2n(adjacent(">"))), "..."),
+                opt(":", IDENTIFIER), opt(balancedBraces));
+        precedenceGroupDeclaration.is("precedencegroup", IDENTIFIER, balancedBraces);
+    }
+
+    private static void memoize(Rule... rules) {
+        for (Rule rule : rules) {
+            ((RuleDefinition) rule).enableMemoization();
+        }
     }
 }
@@ -19,49 +19,50 @@
  */
 package org.sonar.plugins.swift.tests;
 
-import org.apache.commons.lang.StringEscapeUtils;
+import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.SensorContext;
-import org.sonar.api.batch.fs.FileSystem;
-import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.measures.CoreMetrics;
-import org.sonar.api.measures.Measure;
-import org.sonar.api.measures.Metric;
 import org.sonar.api.resources.Project;
-import org.sonar.api.resources.Qualifiers;
-import org.sonar.api.resources.Resource;
-import org.sonar.api.utils.ParsingUtils;
 import org.sonar.api.utils.StaxParser;
 import org.sonar.api.utils.XmlParserException;
-import org.sonar.plugins.surefire.TestCaseDetails;
 import org.sonar.plugins.surefire.TestSuiteParser;
 import org.sonar.plugins.surefire.TestSuiteReport;
+import org.sonar.plugins.swift.SwiftFileIndex;
 
-import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.FilenameFilter;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports JUnit reports in two stages: the report files are parsed concurrently into immutable snapshots, which are
+ * then saved from the sensor thread. A test class found in several reports is only imported once, from the first
+ * of these reports.
+ */
 class SwiftSurefireParser {
 
     private static final Logger LOG = LoggerFactory.getLogger(SwiftSurefireParser.class);
 
     private final Project project;
-    private final FileSystem fileSystem;
-    private final  ResourcePerspectives resourcePerspectives;
     private final SensorContext context;
+    private final TestResultsPersistor persistor;
+    private final int threads;
 
-    public SwiftSurefireParser(Project project, FileSystem fileSystem, ResourcePerspectives resourcePerspectives, SensorContext context) {
+    public SwiftSurefireParser(Project project, SensorContext context, SwiftFileIndex fileIndex, int stackTraceMaxBytes, int threads) {
         this.project = project;
-        this.fileSystem = fileSystem;
-        this.resourcePerspectives = resourcePerspectives;
         this.context = context;
+        this.persistor = new TestResultsPersistor(context, fileIndex, stackTraceMaxBytes);
+        this.threads = threads;
     }
 
     public void collect(File reportsDir) {
@@ -71,7 +72,7 @@ class SwiftSurefireParser {
         if (xmlFiles.length == 0) {
             insertZeroWhenNoReports(project, context);
         } else {
-            parseFiles(context, xmlFiles);
+            persistor.save(parseFiles(xmlFiles));
         }
     }
 
@@ -81,12 +82,15 @@ class SwiftSurefireParser {
             return new File[0];
         }
 
-        return dir.listFiles(new FilenameFilter() {
+        File[] reports = dir.listFiles(new FilenameFilter() {
             public boolean accept(File dir, String name) {
                 // .junit is for Fastlane support
                 return (name.startsWith("TEST") && name.endsWith(".xml")) || (name.endsWith(".junit"));
             }
         });
+        // the first report of a class wins: do not depend on the order of the file system
+        Arrays.sort(reports);
+        return reports;
     }
 
     private void insertZeroWhenNoReports(Project pom, SensorContext context) {
@@ -94,105 +98,101 @@ class SwiftSurefireParser {
         context.saveMeasure(CoreMetrics.TESTS, 0.0);
     }
 
-    private void parseFiles(SensorContext context, File[] reports) {
-
-        Set<TestSuiteReport> analyzedReports = new HashSet<TestSuiteReport>();
-
-        try {
-
-            for (File report : reports) {
-                TestSuiteParser parserHandler = new TestSuiteParser();
-                StaxParser parser = new StaxParser(parserHandler, false);
-                parser.parse(report);
-
-                for (TestSuiteReport fileReport : parserHandler.getParsedReports()) {
+    /**
+     * @return the suites of the reports, in the order of the report files
+     */
+    List<TestSuiteSnapshot> parseFiles(File[] reports) {
 
+        // index of the first report of each class: the suites of the other reports are duplicates
+        final ConcurrentMap<String, Integer> firstReports = new ConcurrentHashMap<String, Integer>();
 
-                    if ( !fileReport.isValid() || analyzedReports.contains(fileReport)) {
-                        continue;
-                    }
-
-                    if (fileReport.getTests() > 0) {
-                        double testsCount = fileReport.getTests() - fileReport.getSkipped();
-                        String testClass = fileReport.getClassKey();
-                        Resource resource = getUnitTestResource(testClass);
-
-                        if(resource == null) {
-                            LOG.warn("file for test class {} not found", testClass);
-                            continue;
-                        }
-
-                        saveClassMeasure(resource, CoreMetrics.SKIPPED_TESTS, fileReport.getSkipped());
-                        saveClassMeasure(resource, CoreMetrics.TESTS, testsCount);
-                        saveClassMeasure(resource, CoreMetrics.TEST_ERRORS, fileReport.getErrors());
-                        saveClassMeasure(resource, CoreMetrics.TEST_FAILURES, fileReport.getFailures());
-                        saveClassMeasure(resource, CoreMetrics.TEST_EXECUTION_TIME, fileReport.getTimeMS());
-                        double passedTests = testsCount - fileReport.getErrors() - fileReport.getFailures();
-                        if (testsCount > 0) {
-                            double percentage = passedTests * 100d / testsCount;
-                            saveClassMeasure(resource, CoreMetrics.TEST_SUCCESS_DENSITY, ParsingUtils.scaleValue(percentage));
-                        }
-                        saveTestsDetails(resource, fileReport);
-                        analyzedReports.add(fileReport);
-                    }
-                }
+        int threadCount = Math.min(threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads, reports.length);
+        List<List<TestSuiteSnapshot>> suitesPerReport = Lists.newArrayList();
+        if (threadCount <= 1) {
+            for (int i = 0; i < reports.length; i++) {
+                suitesPerReport.add(parseFile(reports[i], i, firstReports));
             }
-
-        } catch (Exception e) {
-            throw new XmlParserException("Cannot parse surefire reports", e);
+        } else {
+            LOG.info("Parsing {} test reports with {} threads", reports.length, threadCount);
+            suitesPerReport = parseFiles(reports, threadCount, firstReports);
         }
-    }
 
-    private void saveTestsDetails(@Nonnull Resource resource, @Nonnull TestSuiteReport fileReport) throws TransformerException {
-
-        StringBuilder testCaseDetails = new StringBuilder(256);
-        testCaseDetails.append("<tests-details>");
-        List<TestCaseDetails> details = fileReport.getDetails();
-        for (TestCaseDetails detail : details) {
-            testCaseDetails.append("<testcase status=\"").append(detail.getStatus())
-                    .append("\" time=\"").append(detail.getTimeMS())
-                    .append("\" name=\"").append(detail.getName()).append("\"");
-            boolean isError = detail.getStatus().equals(TestCaseDetails.STATUS_ERROR);
-            if (isError || detail.getStatus().equals(TestCaseDetails.STATUS_FAILURE)) {
-                testCaseDetails.append(">")
-                        .append(isError ? "<error message=\"" : "<failure message=\"")
-                        .append(StringEscapeUtils.escapeXml(detail.getErrorMessage())).append("\">")
-                        .append("<![CDATA[").append(StringEscapeUtils.escapeXml(detail.getStackTrace())).append("]]>")
-                        .append(isError ? "</error>" : "</failure>").append("</testcase>");
-            } else {
-                testCaseDetails.append("/>");
+        List<TestSuiteSnapshot> suites = Lists.newArrayList();
+        for (int i = 0; i < suitesPerReport.size(); i++) {
+            for (TestSuiteSnapshot suite : suitesPerReport.get(i)) {
+                if (firstReports.get(suite.getClassKey()) == i) {
+                    suites.add(suite);
+                }
             }
         }
-        testCaseDetails.append("</tests-details>");
-        context.saveMeasure(resource, new Measure(CoreMetrics.TEST_DATA, testCaseDetails.toString()));
+        return suites;
     }
 
-    private void saveClassMeasure(@Nonnull Resource resource, Metric metric, double value) {
+    private static List<List<TestSuiteSnapshot>> parseFiles(File[] reports, int threadCount,
+                                                            final ConcurrentMap<String, Integer> firstReports) {
 
-        if (Double.isNaN(value)) {
-            return;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<List<TestSuiteSnapshot>>> futures = Lists.newArrayList();
+            for (int i = 0; i < reports.length; i++) {
+                final File report = reports[i];
+                final int reportIndex = i;
+                futures.add(executor.submit(new Callable<List<TestSuiteSnapshot>>() {
+                    @Override
+                    public List<TestSuiteSnapshot> call() {
+                        return parseFile(report, reportIndex, firstReports);
+                    }
+                }));
+            }
+
+            List<List<TestSuiteSnapshot>> suitesPerReport = Lists.newArrayList();
+            for (Future<List<TestSuiteSnapshot>> future : futures) {
+                suitesPerReport.add(future.get());
+            }
+            return suitesPerReport;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XmlParserException("Interrupted while parsing surefire reports", e);
+        } catch (ExecutionException e) {
+            throw new XmlParserException("Cannot parse surefire reports", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
-        context.saveMeasure(resource, metric, value);
     }
 
-    private @Nullable Resource getUnitTestResource(String classname) {
-
-        String[] classNameParts = classname.split("\\.");
-        String classNameWithoutModule = classNameParts.length > 1 ? classNameParts[1] : classNameParts[0];
-        String fileName = classNameWithoutModule + ".swift";
+    private static List<TestSuiteSnapshot> parseFile(File report, int reportIndex, ConcurrentMap<String, Integer> firstReports) {
 
-        InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().matchesPathPattern("**/" + fileName));
-        if (inputFile == null) {
-            return null;
+        TestSuiteParser parserHandler = new TestSuiteParser();
+        try {
+            new StaxParser(parserHandler, false).parse(report);
+        } catch (XMLStreamException e) {
+            throw new XmlParserException("Cannot parse surefire report " + report, e);
         }
 
-        Resource resource = context.getResource(inputFile);
-
-        if(resource instanceof org.sonar.api.resources.File) {
-            org.sonar.api.resources.File sonarFile = (org.sonar.api.resources.File) resource;
-            sonarFile.setQualifier(Qualifiers.UNIT_TEST_FILE);
+        List<TestSuiteSnapshot> suites = Lists.newArrayList();
+        for (TestSuiteReport fileReport : parserHandler.getParsedReports()) {
+            if (fileReport.isValid() && fileReport.getTests() > 0 && claim(firstReports, fileReport.getClassKey(), reportIndex)) {
+                suites.add(TestSuiteSnapshot.of(fileReport));
+            }
         }
+        return suites;
+    }
 
-        return resource;
+    /**
+     * Records the report as the first one of the class unless a report before it already has the class.
+     *
+     * @return false when the suite is known to be a duplicate, so that it is not copied
+     */
+    private static boolean claim(ConcurrentMap<String, Integer> firstReports, String classKey, int reportIndex) {
+
+        Integer first = firstReports.putIfAbsent(classKey, reportIndex);
+        while (first != null && reportIndex < first) {
+            if (firstReports.replace(classKey, first, reportIndex)) {
+                return true;
+            }
+            first = firstReports.putIfAbsent(classKey, reportIndex);
+        }
+        return first == null || first == reportIndex;
     }
 }
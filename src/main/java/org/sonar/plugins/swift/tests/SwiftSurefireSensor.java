@@ -26,9 +26,11 @@ import org.sonar.api.batch.DependsUpon;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
-import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
+import org.sonar.plugins.swift.SwiftPlugin;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
 import org.sonar.plugins.swift.lang.core.Swift;
 
 import java.io.File;
@@ -38,16 +40,18 @@ public class SwiftSurefireSensor implements Sensor {
     private static final Logger LOG = LoggerFactory.getLogger(SwiftSurefireSensor.class);
     public static final String REPORT_PATH_KEY = "sonar.junit.reportsPath";
     public static final String DEFAULT_REPORT_PATH = "sonar-reports/";
+    public static final String STACK_TRACE_MAX_BYTES_KEY = SwiftPlugin.PROPERTY_PREFIX + ".tests.stackTraceMaxBytes";
+    public static final String DEFAULT_STACK_TRACE_MAX_BYTES = "4096";
 
     private final Settings settings;
     private final FileSystem fileSystem;
-    private final ResourcePerspectives resourcePerspectives;
+    private final SwiftFileIndex fileIndex;
 
 
-    public SwiftSurefireSensor(final FileSystem fileSystem, final Settings config, final ResourcePerspectives resourcePerspectives) {
+    public SwiftSurefireSensor(final FileSystem fileSystem, final Settings config, final SwiftFileIndex fileIndex) {
         this.settings = config;
         this.fileSystem = fileSystem;
-        this.resourcePerspectives = resourcePerspectives;
+        this.fileIndex = fileIndex;
     }
 
     @DependsUpon
@@ -57,7 +61,9 @@ public class SwiftSurefireSensor implements Sensor {
 
     public boolean shouldExecuteOnProject(Project project) {
 
-        return project.isRoot() && fileSystem.hasFiles(fileSystem.predicates().hasLanguage(Swift.KEY));
+        // xcresult reports replace the JUnit reports
+        return project.isRoot() && !XcresultSensor.isEnabled(settings)
+                && fileSystem.hasFiles(fileSystem.predicates().hasLanguage(Swift.KEY));
     }
 
     public void analyse(Project project, SensorContext context) {
@@ -83,8 +89,10 @@ public class SwiftSurefireSensor implements Sensor {
 
     protected void collect(Project project, SensorContext context, File reportsDir) {
         LOG.info("parsing {}", reportsDir);
-        SwiftSurefireParser parser = new SwiftSurefireParser(project, fileSystem, resourcePerspectives, context);
+        SwiftSurefireParser parser = new SwiftSurefireParser(project, context, fileIndex,
+                settings.getInt(STACK_TRACE_MAX_BYTES_KEY), settings.getInt(ExternalIssueReports.THREADS_KEY));
         parser.collect(reportsDir);
+        fileIndex.logStatistics();
     }
 
     @Override
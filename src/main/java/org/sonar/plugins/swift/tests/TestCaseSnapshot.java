@@ -0,0 +1,74 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import org.sonar.plugins.surefire.TestCaseDetails;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable result of a test case, detached from the report parser.
+ */
+final class TestCaseSnapshot {
+
+    private final String name;
+    private final String status;
+    private final int timeMS;
+    private final String errorMessage;
+    private final String stackTrace;
+
+    TestCaseSnapshot(String name, String status, int timeMS, @Nullable String errorMessage, @Nullable String stackTrace) {
+        this.name = name;
+        this.status = status;
+        this.timeMS = timeMS;
+        this.errorMessage = errorMessage;
+        this.stackTrace = stackTrace;
+    }
+
+    static TestCaseSnapshot of(TestCaseDetails details) {
+        return new TestCaseSnapshot(details.getName(), details.getStatus(), details.getTimeMS(),
+                details.getErrorMessage(), details.getStackTrace());
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return one of the {@code TestCaseDetails.STATUS_*} constants
+     */
+    String getStatus() {
+        return status;
+    }
+
+    int getTimeMS() {
+        return timeMS;
+    }
+
+    @Nullable
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Nullable
+    String getStackTrace() {
+        return stackTrace;
+    }
+}
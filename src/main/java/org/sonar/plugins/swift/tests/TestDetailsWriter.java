@@ -0,0 +1,139 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import org.sonar.plugins.surefire.TestCaseDetails;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Serializes test cases to the XML of the {@code test_data} measure.
+ *
+ * The same buffer is reused for all the suites of a parser and text is escaped while it is appended. Stack traces are
+ * cut to a budget of UTF-8 bytes, 0 keeping them whole. Not thread safe.
+ */
+class TestDetailsWriter {
+
+    static final String TRUNCATED = "\n...";
+
+    // bytes of an average test case without stack trace
+    private static final int CASE_LENGTH = 96;
+
+    private final int stackTraceMaxBytes;
+    private final StringBuilder buffer = new StringBuilder(1024);
+
+    TestDetailsWriter(int stackTraceMaxBytes) {
+        this.stackTraceMaxBytes = stackTraceMaxBytes;
+    }
+
+    String write(List<TestCaseSnapshot> details) {
+
+        buffer.setLength(0);
+        buffer.ensureCapacity(32 + details.size() * CASE_LENGTH);
+
+        buffer.append("<tests-details>");
+        for (TestCaseSnapshot detail : details) {
+            buffer.append("<testcase status=\"").append(detail.getStatus())
+                    .append("\" time=\"").append(detail.getTimeMS())
+                    .append("\" name=\"");
+            appendEscaped(detail.getName(), 0);
+            buffer.append('"');
+
+            boolean isError = TestCaseDetails.STATUS_ERROR.equals(detail.getStatus());
+            if (isError || TestCaseDetails.STATUS_FAILURE.equals(detail.getStatus())) {
+                buffer.append(isError ? "><error message=\"" : "><failure message=\"");
+                appendEscaped(detail.getErrorMessage(), 0);
+                buffer.append("\"><![CDATA[");
+                appendEscaped(detail.getStackTrace(), stackTraceMaxBytes);
+                buffer.append(isError ? "]]></error></testcase>" : "]]></failure></testcase>");
+            } else {
+                buffer.append("/>");
+            }
+        }
+        buffer.append("</tests-details>");
+
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the escaped text, cut after {@code maxBytes} UTF-8 bytes of escaped text when {@code maxBytes} is positive.
+     */
+    private void appendEscaped(@Nullable String text, int maxBytes) {
+
+        if (text == null) {
+            return;
+        }
+
+        long bytes = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            String entity = entity(c);
+            int charBytes;
+            if (entity != null) {
+                charBytes = entity.length();
+            } else if (c < 0x80) {
+                charBytes = 1;
+            } else if (c < 0x800) {
+                charBytes = 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // the pair is written as a single 4 bytes sequence
+                charBytes = 4;
+            } else if (Character.isLowSurrogate(c)) {
+                charBytes = 0;
+            } else {
+                charBytes = 3;
+            }
+
+            bytes += charBytes;
+            if (maxBytes > 0 && bytes > maxBytes) {
+                buffer.append(TRUNCATED);
+                return;
+            }
+
+            if (entity != null) {
+                buffer.append(entity);
+            } else {
+                buffer.append(c);
+            }
+        }
+    }
+
+    @Nullable
+    private static String entity(char c) {
+
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return "&quot;";
+            case '\'':
+                return "&apos;";
+            default:
+                return null;
+        }
+    }
+}
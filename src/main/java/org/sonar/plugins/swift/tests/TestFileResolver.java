@@ -0,0 +1,101 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the source file of a test class from the class key of a report, such as {@code MyAppTests.LoginTests}.
+ *
+ * The file is looked up by base name in the {@link SwiftFileIndex}. When several files share the name, test files
+ * are preferred, then files below a directory named after the module of the class key, then the first file in the
+ * order of the relative paths, so that the same file is always chosen.
+ */
+class TestFileResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestFileResolver.class);
+
+    private final SwiftFileIndex fileIndex;
+    private final Map<String, InputFile> resolved = Maps.newHashMap();
+
+    TestFileResolver(SwiftFileIndex fileIndex) {
+        this.fileIndex = fileIndex;
+    }
+
+    @Nullable
+    InputFile resolve(String classKey) {
+
+        if (resolved.containsKey(classKey)) {
+            return resolved.get(classKey);
+        }
+        InputFile inputFile = lookup(classKey);
+        resolved.put(classKey, inputFile);
+        return inputFile;
+    }
+
+    @Nullable
+    private InputFile lookup(String classKey) {
+
+        String[] classKeyParts = classKey.split("\\.");
+        String module = classKeyParts.length > 1 ? classKeyParts[0] : null;
+        String className = classKeyParts.length > 1 ? classKeyParts[1] : classKeyParts[0];
+
+        List<InputFile> candidates = fileIndex.inputFilesByBaseName(className + ".swift");
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+
+        InputFile best = null;
+        int bestScore = -1;
+        for (InputFile candidate : candidates) {
+            int score = score(candidate, module);
+            // candidates are sorted: the first one wins a tie
+            if (score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        LOG.debug("{} files match test class {}, {} is used", candidates.size(), classKey, best.relativePath());
+        return best;
+    }
+
+    private static int score(InputFile candidate, @Nullable String module) {
+
+        int score = 0;
+        if (candidate.type() == InputFile.Type.TEST) {
+            score += 2;
+        }
+        if (module != null) {
+            String path = "/" + candidate.relativePath().replace('\\', '/');
+            if (path.contains("/" + module + "/")) {
+                score += 1;
+            }
+        }
+        return score;
+    }
+}
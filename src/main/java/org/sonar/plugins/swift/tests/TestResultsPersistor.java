@@ -0,0 +1,107 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.resources.Qualifiers;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.utils.ParsingUtils;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * Saves the measures of test classes on their source files. Used from the sensor thread only.
+ */
+class TestResultsPersistor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestResultsPersistor.class);
+
+    private final SensorContext context;
+    private final SwiftFileIndex fileIndex;
+    private final TestFileResolver testFileResolver;
+    private final TestDetailsWriter detailsWriter;
+
+    TestResultsPersistor(SensorContext context, SwiftFileIndex fileIndex, int stackTraceMaxBytes) {
+        this.context = context;
+        this.fileIndex = fileIndex;
+        this.testFileResolver = new TestFileResolver(fileIndex);
+        this.detailsWriter = new TestDetailsWriter(stackTraceMaxBytes);
+    }
+
+    void save(Collection<TestSuiteSnapshot> suites) {
+
+        for (TestSuiteSnapshot suite : suites) {
+            String testClass = suite.getClassKey();
+            Resource resource = getUnitTestResource(testClass);
+
+            if (resource == null) {
+                LOG.warn("file for test class {} not found", testClass);
+                continue;
+            }
+
+            double testsCount = suite.getTests() - suite.getSkipped();
+            saveClassMeasure(resource, CoreMetrics.SKIPPED_TESTS, suite.getSkipped());
+            saveClassMeasure(resource, CoreMetrics.TESTS, testsCount);
+            saveClassMeasure(resource, CoreMetrics.TEST_ERRORS, suite.getErrors());
+            saveClassMeasure(resource, CoreMetrics.TEST_FAILURES, suite.getFailures());
+            saveClassMeasure(resource, CoreMetrics.TEST_EXECUTION_TIME, suite.getTimeMS());
+            double passedTests = testsCount - suite.getErrors() - suite.getFailures();
+            if (testsCount > 0) {
+                double percentage = passedTests * 100d / testsCount;
+                saveClassMeasure(resource, CoreMetrics.TEST_SUCCESS_DENSITY, ParsingUtils.scaleValue(percentage));
+            }
+            context.saveMeasure(resource, new Measure(CoreMetrics.TEST_DATA, detailsWriter.write(suite.getDetails())));
+        }
+    }
+
+    private void saveClassMeasure(@Nonnull Resource resource, Metric metric, double value) {
+
+        if (Double.isNaN(value)) {
+            return;
+        }
+        context.saveMeasure(resource, metric, value);
+    }
+
+    private @Nullable Resource getUnitTestResource(String classname) {
+
+        InputFile inputFile = testFileResolver.resolve(classname);
+        if (inputFile == null) {
+            return null;
+        }
+
+        Resource resource = fileIndex.resource(context, inputFile);
+
+        if(resource instanceof org.sonar.api.resources.File) {
+            org.sonar.api.resources.File sonarFile = (org.sonar.api.resources.File) resource;
+            sonarFile.setQualifier(Qualifiers.UNIT_TEST_FILE);
+        }
+
+        return resource;
+    }
+}
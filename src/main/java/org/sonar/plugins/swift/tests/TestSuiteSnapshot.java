@@ -0,0 +1,87 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import com.google.common.collect.ImmutableList;
+import org.sonar.plugins.surefire.TestCaseDetails;
+import org.sonar.plugins.surefire.TestSuiteReport;
+
+import java.util.List;
+
+/**
+ * Immutable results of a test class, which can be handed over from the parsing threads to the sensor thread.
+ */
+final class TestSuiteSnapshot {
+
+    private final String classKey;
+    private final int tests;
+    private final int skipped;
+    private final int errors;
+    private final int failures;
+    private final int timeMS;
+    private final List<TestCaseSnapshot> details;
+
+    TestSuiteSnapshot(String classKey, int tests, int skipped, int errors, int failures, int timeMS, List<TestCaseSnapshot> details) {
+        this.classKey = classKey;
+        this.tests = tests;
+        this.skipped = skipped;
+        this.errors = errors;
+        this.failures = failures;
+        this.timeMS = timeMS;
+        this.details = ImmutableList.copyOf(details);
+    }
+
+    static TestSuiteSnapshot of(TestSuiteReport report) {
+        ImmutableList.Builder<TestCaseSnapshot> details = ImmutableList.builder();
+        for (TestCaseDetails testCase : report.getDetails()) {
+            details.add(TestCaseSnapshot.of(testCase));
+        }
+        return new TestSuiteSnapshot(report.getClassKey(), report.getTests(), report.getSkipped(), report.getErrors(),
+                report.getFailures(), report.getTimeMS(), details.build());
+    }
+
+    String getClassKey() {
+        return classKey;
+    }
+
+    int getTests() {
+        return tests;
+    }
+
+    int getSkipped() {
+        return skipped;
+    }
+
+    int getErrors() {
+        return errors;
+    }
+
+    int getFailures() {
+        return failures;
+    }
+
+    int getTimeMS() {
+        return timeMS;
+    }
+
+    List<TestCaseSnapshot> getDetails() {
+        return details;
+    }
+}
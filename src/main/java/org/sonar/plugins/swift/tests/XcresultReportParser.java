@@ -0,0 +1,326 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.surefire.TestCaseDetails;
+import org.sonar.plugins.swift.JsonObjectStreamHandler;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the test summaries of an xcresult bundle, as exported by
+ * {@code xcrun xcresulttool get --format json --path Test.xcresult --id <id of the testsRef>}, and the failure
+ * messages of its invocation record, exported by {@code xcrun xcresulttool get --format json --path Test.xcresult}.
+ *
+ * Every value of this format is an object such as {@code {"_type": {"_name": "String"}, "_value": "..."}}. The tree
+ * of test groups is streamed: only the {@code ActionTestMetadata} leaves are read, each test being added to the suite
+ * of its class, and the module of the class is the target of the enclosing {@code ActionTestableSummary}. The
+ * {@code TestFailureIssueSummary} objects of an invocation record give the message and location of each failure.
+ *
+ * Reports are read one after the other, then {@link #suites()} builds the suites of all of them: the failures of an
+ * invocation record apply whatever the order of the reports.
+ */
+class XcresultReportParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XcresultReportParser.class);
+
+    private static final String TESTABLE_SUMMARY = "ActionTestableSummary";
+    private static final String TEST_METADATA = "ActionTestMetadata";
+    private static final String TEST_FAILURE_SUMMARY = "TestFailureIssueSummary";
+
+    // entries read from the objects, the other nested objects are dropped
+    private static final Set<String> KEPT_ENTRIES = ImmutableSet.of("_type", "name", "targetName", "identifier", "testStatus",
+            "duration", "testCaseName", "message", "documentLocationInCreatingWorkspace", "url");
+
+    // the first report of a class wins, as with JUnit reports; within a report, the first run of a test
+    private final Map<String, Map<String, TestCaseSnapshot>> testCases = Maps.newLinkedHashMap();
+    // by test case name, "LoginTests.testLogout"
+    private final Map<String, List<Failure>> failures = Maps.newHashMap();
+
+    void parseReport(File report) {
+
+        Handler handler = new Handler(testCases, failures);
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(report), Charsets.UTF_8));
+            handler.parse(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read xcresult report " + report, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Unable to parse xcresult report " + report, e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+
+        LOG.debug("{} test classes and {} failures read from {}", handler.classKeys.size(), handler.failureCount, report);
+    }
+
+    /**
+     * @return the suites of all reports, by class key in the order of the reports
+     */
+    Map<String, TestSuiteSnapshot> suites() {
+
+        Map<String, TestSuiteSnapshot> suites = Maps.newLinkedHashMap();
+        int withoutMessage = 0;
+        for (Map.Entry<String, Map<String, TestCaseSnapshot>> entry : testCases.entrySet()) {
+            String className = entry.getKey().substring(entry.getKey().lastIndexOf('.') + 1);
+            List<TestCaseSnapshot> classTestCases = Lists.newArrayList();
+            for (TestCaseSnapshot testCase : entry.getValue().values()) {
+                TestCaseSnapshot details = withFailure(className, testCase);
+                if (details.getErrorMessage() == null && isFailed(details)) {
+                    withoutMessage++;
+                }
+                classTestCases.add(details);
+            }
+            suites.put(entry.getKey(), suite(entry.getKey(), classTestCases));
+        }
+        if (withoutMessage > 0) {
+            LOG.warn("{} failed tests have no failure message, export the invocation record of the xcresult bundle "
+                    + "with the test summaries to get them", withoutMessage);
+        }
+        return suites;
+    }
+
+    private TestCaseSnapshot withFailure(String className, TestCaseSnapshot testCase) {
+
+        List<Failure> testFailures = failures.get(className + "." + testCase.getName());
+        if (testFailures == null || !isFailed(testCase)) {
+            return testCase;
+        }
+        StringBuilder stackTrace = new StringBuilder();
+        for (Failure failure : testFailures) {
+            stackTrace.append(failure.message);
+            if (failure.location != null) {
+                stackTrace.append("\n\tat ").append(failure.location);
+            }
+            stackTrace.append('\n');
+        }
+        return new TestCaseSnapshot(testCase.getName(), testCase.getStatus(), testCase.getTimeMS(),
+                testFailures.get(0).message, stackTrace.toString());
+    }
+
+    private static boolean isFailed(TestCaseSnapshot testCase) {
+
+        return TestCaseDetails.STATUS_FAILURE.equals(testCase.getStatus())
+                || TestCaseDetails.STATUS_ERROR.equals(testCase.getStatus());
+    }
+
+    private static TestSuiteSnapshot suite(String classKey, List<TestCaseSnapshot> testCases) {
+
+        int skipped = 0;
+        int errors = 0;
+        int failures = 0;
+        int timeMS = 0;
+        for (TestCaseSnapshot testCase : testCases) {
+            if (TestCaseDetails.STATUS_SKIPPED.equals(testCase.getStatus())) {
+                skipped++;
+            } else if (TestCaseDetails.STATUS_ERROR.equals(testCase.getStatus())) {
+                errors++;
+            } else if (TestCaseDetails.STATUS_FAILURE.equals(testCase.getStatus())) {
+                failures++;
+            }
+            timeMS += testCase.getTimeMS();
+        }
+        return new TestSuiteSnapshot(classKey, testCases.size(), skipped, errors, failures, timeMS, testCases);
+    }
+
+    private static final class Failure {
+
+        private final String message;
+        private final String location;
+
+        Failure(String message, @Nullable String location) {
+            this.message = message;
+            this.location = location;
+        }
+    }
+
+    private static class Handler extends JsonObjectStreamHandler {
+
+        private final Map<String, Map<String, TestCaseSnapshot>> testCases;
+        private final Map<String, List<Failure>> failures;
+        // classes of this report
+        private final Set<String> classKeys = Sets.newHashSet();
+        private int failureCount;
+        private String module;
+
+        Handler(Map<String, Map<String, TestCaseSnapshot>> testCases, Map<String, List<Failure>> failures) {
+            this.testCases = testCases;
+            this.failures = failures;
+        }
+
+        @Override
+        protected boolean onObject(@Nullable String key, Map<String, Object> object, @Nullable Map<String, Object> parent) {
+
+            if (parent != null && TESTABLE_SUMMARY.equals(typeName(parent))) {
+                // "_type" comes first: the testable summary is known before its target and its tests
+                if ("targetName".equals(key) || "name".equals(key) && module == null) {
+                    module = value(object);
+                }
+            } else if (TESTABLE_SUMMARY.equals(typeName(object))) {
+                module = null;
+            } else if (TEST_METADATA.equals(typeName(object))) {
+                addTestCase(object);
+            } else if (TEST_FAILURE_SUMMARY.equals(typeName(object))) {
+                addFailure(object);
+            }
+            return key != null && KEPT_ENTRIES.contains(key);
+        }
+
+        private void addTestCase(Map<String, Object> metadata) {
+
+            // "LoginTests/testLogin()"
+            String identifier = valueOf(metadata, "identifier");
+            if (identifier == null) {
+                return;
+            }
+            int slash = identifier.lastIndexOf('/');
+            String className = slash > 0 ? identifier.substring(0, slash) : identifier;
+            String name = identifier.substring(slash + 1);
+            if (name.endsWith("()")) {
+                name = name.substring(0, name.length() - 2);
+            }
+            // classes of nested groups are identified by their last component
+            className = className.substring(className.lastIndexOf('/') + 1);
+            String classKey = module == null ? className : module + "." + className;
+
+            Map<String, TestCaseSnapshot> classTestCases = testCases.get(classKey);
+            if (classTestCases == null) {
+                classTestCases = Maps.newLinkedHashMap();
+                testCases.put(classKey, classTestCases);
+                classKeys.add(classKey);
+            } else if (!classKeys.contains(classKey)) {
+                return;
+            }
+            // a plan run with several configurations has one run summary per configuration
+            if (!classTestCases.containsKey(name)) {
+                classTestCases.put(name, new TestCaseSnapshot(name, status(valueOf(metadata, "testStatus")),
+                        durationMS(valueOf(metadata, "duration")), null, null));
+            }
+        }
+
+        private void addFailure(Map<String, Object> summary) {
+
+            // "LoginTests.testLogout()"
+            String testCaseName = valueOf(summary, "testCaseName");
+            String message = valueOf(summary, "message");
+            if (testCaseName == null || message == null) {
+                return;
+            }
+            if (testCaseName.endsWith("()")) {
+                testCaseName = testCaseName.substring(0, testCaseName.length() - 2);
+            }
+            List<Failure> testFailures = failures.get(testCaseName);
+            if (testFailures == null) {
+                testFailures = Lists.newArrayList();
+                failures.put(testCaseName, testFailures);
+            }
+            testFailures.add(new Failure(message, location(summary)));
+            failureCount++;
+        }
+
+        /**
+         * @return "/path/LoginTests.swift:42" from "file:///path/LoginTests.swift#...&StartingLineNumber=41", whose
+         * line numbers start at 0
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private static String location(Map<String, Object> summary) {
+
+            Object documentLocation = summary.get("documentLocationInCreatingWorkspace");
+            String url = documentLocation instanceof Map ? valueOf((Map<String, Object>) documentLocation, "url") : null;
+            if (url == null) {
+                return null;
+            }
+            String path = StringUtils.removeStart(StringUtils.substringBefore(url, "#"), "file://");
+            String line = StringUtils.substringBefore(StringUtils.substringAfter(url, "StartingLineNumber="), "&");
+            return StringUtils.isNumeric(line) && !line.isEmpty() ? path + ":" + (Integer.parseInt(line) + 1) : path;
+        }
+
+        private static String status(@Nullable String testStatus) {
+
+            if ("Success".equals(testStatus) || "Expected Failure".equals(testStatus)) {
+                return TestCaseDetails.STATUS_OK;
+            } else if ("Failure".equals(testStatus)) {
+                return TestCaseDetails.STATUS_FAILURE;
+            } else if ("Skipped".equals(testStatus)) {
+                return TestCaseDetails.STATUS_SKIPPED;
+            }
+            return TestCaseDetails.STATUS_ERROR;
+        }
+
+        private static int durationMS(@Nullable String duration) {
+
+            if (duration == null) {
+                return 0;
+            }
+            try {
+                return (int) Math.round(Double.parseDouble(duration) * 1000);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        @Nullable
+        private static String typeName(Map<String, Object> object) {
+
+            return valueOf(object, "_type", "_name");
+        }
+
+        @Nullable
+        private static String valueOf(Map<String, Object> object, String key) {
+
+            return valueOf(object, key, "_value");
+        }
+
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private static String valueOf(Map<String, Object> object, String key, String valueKey) {
+
+            Object value = object.get(key);
+            return value instanceof Map ? stringValue((Map<String, Object>) value, valueKey) : null;
+        }
+
+        @Nullable
+        private static String value(Map<String, Object> object) {
+
+            return stringValue(object, "_value");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.CoverageExtension;
+import org.sonar.api.batch.DependsUpon;
+import org.sonar.api.batch.Sensor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
+import org.sonar.plugins.swift.SwiftPlugin;
+import org.sonar.plugins.swift.issues.ExternalIssueReports;
+import org.sonar.plugins.swift.lang.core.Swift;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Imports the test results exported from xcresult bundles, instead of the JUnit reports read by
+ * {@link SwiftSurefireSensor}.
+ */
+public class XcresultSensor implements Sensor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XcresultSensor.class);
+
+    public static final String REPORT_PATTERN_KEY = SwiftPlugin.PROPERTY_PREFIX + ".tests.xcresult.reportPattern";
+
+    private final Settings settings;
+    private final FileSystem fileSystem;
+    private final SwiftFileIndex fileIndex;
+
+    public XcresultSensor(final FileSystem fileSystem, final Settings settings, final SwiftFileIndex fileIndex) {
+        this.settings = settings;
+        this.fileSystem = fileSystem;
+        this.fileIndex = fileIndex;
+    }
+
+    @DependsUpon
+    public Class<?> dependsUponCoverageSensors() {
+        return CoverageExtension.class;
+    }
+
+    public boolean shouldExecuteOnProject(Project project) {
+
+        return project.isRoot() && isEnabled(settings)
+                && fileSystem.hasFiles(fileSystem.predicates().hasLanguage(Swift.KEY));
+    }
+
+    static boolean isEnabled(Settings settings) {
+
+        return StringUtils.isNotBlank(settings.getString(REPORT_PATTERN_KEY));
+    }
+
+    public void analyse(Project project, SensorContext context) {
+
+        List<File> reports = ExternalIssueReports.find(fileSystem.baseDir(), settings.getString(REPORT_PATTERN_KEY));
+        if (reports.isEmpty()) {
+            LOG.warn("No xcresult report matches {}", settings.getString(REPORT_PATTERN_KEY));
+            return;
+        }
+
+        XcresultReportParser parser = new XcresultReportParser();
+        for (File report : reports) {
+            LOG.info("parsing {}", report);
+            parser.parseReport(report);
+        }
+
+        new TestResultsPersistor(context, fileIndex, settings.getInt(SwiftSurefireSensor.STACK_TRACE_MAX_BYTES_KEY))
+                .save(parser.suites().values());
+        fileIndex.logStatistics();
+    }
+
+    @Override
+    public String toString() {
+        return "Swift XcresultSensor";
+    }
+}
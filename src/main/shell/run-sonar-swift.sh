@@ -128,7 +128,7 @@ nflag=""
 unittests="on"
 swiftlint="on"
 tailor="on"
-lizard="on"
+lizard=""
 
 while [ $# -gt 0 ]
 do
@@ -138,6 +138,7 @@ do
     -nounittests) unittests="";;
 	  -noswiftlint) swiftlint="";;
 	  -notailor) tailor="";;
+	  -lizard) lizard="on";;
 	  --)	shift; break;;
 	  -*)
         echo >&2 "Usage: $0 [-v]"
@@ -364,7 +365,7 @@ if [ "$lizard" = "on" ]; then
   		echo 'Skipping Lizard (not installed!)'
   	fi
 else
- 	echo 'Skipping Lizard (test purposes only!)'
+ 	echo 'Skipping Lizard (complexity is computed by the plugin)'
 fi
 
 # SonarQube
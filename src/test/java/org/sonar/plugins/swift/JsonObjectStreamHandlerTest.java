@@ -0,0 +1,77 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonObjectStreamHandlerTest {
+
+    @Test
+    public void parseShouldHandOverEachObjectOfATopLevelArray() throws Exception {
+        final List<String> files = Lists.newArrayList();
+        new JsonObjectStreamHandler() {
+            @Override
+            protected boolean onObject(@Nullable String key, Map<String, Object> object, @Nullable Map<String, Object> parent) {
+                assertNull(key);
+                assertNull(parent);
+                files.add(stringValue(object, "file") + ":" + intValue(object, "line", -1));
+                return false;
+            }
+        }.parse(new StringReader("[{\"file\": \"/A.swift\", \"line\": 3}, {\"file\": \"/B.swift\", \"line\": null}]"));
+
+        assertEquals(Lists.newArrayList("/A.swift:3", "/B.swift:-1"), files);
+    }
+
+    @Test
+    public void parseShouldKeepNestedObjectsButNotArrayElements() throws Exception {
+        final List<String> violations = Lists.newArrayList();
+        final List<Map<String, Object>> files = Lists.newArrayList();
+        new JsonObjectStreamHandler() {
+            @Override
+            protected boolean onObject(@Nullable String key, Map<String, Object> object, @Nullable Map<String, Object> parent) {
+                if ("location".equals(key)) {
+                    return true;
+                }
+                if ("violations".equals(key)) {
+                    Map<String, Object> location = (Map<String, Object>) object.get("location");
+                    violations.add(stringValue(parent, "path") + ":" + intValue(location, "line", -1) + ":" + stringValue(object, "rule"));
+                } else if ("files".equals(key)) {
+                    files.add(object);
+                }
+                return false;
+            }
+        }.parse(new StringReader("{\"files\": [{\"path\": \"/A.swift\", \"violations\": ["
+                + "{\"rule\": \"r1\", \"location\": {\"line\": 1, \"column\": 2}},"
+                + "{\"rule\": \"r2\", \"location\": {\"line\": 5}}], \"parsed\": true}], \"summary\": {\"violations\": 2}}"));
+
+        assertEquals(Lists.newArrayList("/A.swift:1:r1", "/A.swift:5:r2"), violations);
+        assertEquals(1, files.size());
+        assertFalse(files.get(0).containsKey("violations"));
+        assertEquals(Boolean.TRUE, files.get(0).get("parsed"));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.swift.lang.api.SwiftMetric;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class SquidResultCacheTest {
+
+    private static final String FINGERPRINT = "1.0|UTF-8|swift:S1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheFile;
+    private File source;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheFile = new File(folder.getRoot(), "cache/squid.bin");
+        source = folder.newFile("Model.swift");
+        FileUtils.writeStringToFile(source, "let answer = 42\n", "UTF-8");
+    }
+
+    @Test
+    public void savedResultsShouldBeLoadedBack() throws Exception {
+        save(FINGERPRINT);
+
+        SquidFileResult result = SquidResultCache.load(cacheFile, FINGERPRINT).get("Model.swift", source);
+
+        assertNotNull(result);
+        assertEquals(1.0, result.getDouble(SwiftMetric.FILES), 0.0);
+        assertEquals(12.0, result.getDouble(SwiftMetric.LINES_OF_CODE), 0.0);
+        assertEquals(Lists.newArrayList(1, 4), result.getFunctionComplexities());
+        assertEquals(2, result.getIssues().size());
+
+        SquidFileResult.SquidIssue issue = result.getIssues().get(0);
+        assertEquals(RuleKey.of("swift", "S1"), issue.getRuleKey());
+        assertEquals(Integer.valueOf(3), issue.getLine());
+        assertEquals("Too complex", issue.getMessage());
+        assertEquals(Double.valueOf(2.5), issue.getCost());
+
+        SquidFileResult.SquidIssue fileIssue = result.getIssues().get(1);
+        assertNull(fileIssue.getLine());
+        assertNull(fileIssue.getCost());
+    }
+
+    @Test
+    public void changedFileShouldNotBeReadFromTheCache() throws Exception {
+        save(FINGERPRINT);
+        FileUtils.writeStringToFile(source, "let answer = 43\n", "UTF-8");
+
+        assertNull(SquidResultCache.load(cacheFile, FINGERPRINT).get("Model.swift", source));
+    }
+
+    @Test
+    public void onlyTheFilesOfTheLastAnalysisShouldBeKept() throws Exception {
+        save(FINGERPRINT);
+
+        // Model.swift is not looked up during this analysis
+        SquidResultCache.load(cacheFile, FINGERPRINT).save();
+
+        assertNull(SquidResultCache.load(cacheFile, FINGERPRINT).get("Model.swift", source));
+    }
+
+    @Test
+    public void cacheOfAnotherFingerprintShouldBeIgnored() throws Exception {
+        save(FINGERPRINT);
+
+        assertNull(SquidResultCache.load(cacheFile, "1.0|UTF-8|swift:S1,swift:S2").get("Model.swift", source));
+    }
+
+    @Test
+    public void cacheOfAnotherFormatVersionShouldBeIgnored() throws Exception {
+        save(FINGERPRINT);
+        byte[] bytes = FileUtils.readFileToByteArray(cacheFile);
+        // the version follows the magic number
+        bytes[7]++;
+        FileUtils.writeByteArrayToFile(cacheFile, bytes);
+
+        assertNull(SquidResultCache.load(cacheFile, FINGERPRINT).get("Model.swift", source));
+    }
+
+    @Test
+    public void truncatedCacheShouldBeIgnored() throws Exception {
+        save(FINGERPRINT);
+        byte[] bytes = FileUtils.readFileToByteArray(cacheFile);
+        byte[] truncated = new byte[bytes.length - 10];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        FileUtils.writeByteArrayToFile(cacheFile, truncated);
+
+        assertNull(SquidResultCache.load(cacheFile, FINGERPRINT).get("Model.swift", source));
+    }
+
+    @Test
+    public void corruptedCacheShouldBeIgnored() throws Exception {
+        save(FINGERPRINT);
+        byte[] bytes = FileUtils.readFileToByteArray(cacheFile);
+        // FILES is no longer a metric name
+        bytes[new String(bytes, "ISO-8859-1").indexOf("FILES")] = '?';
+        FileUtils.writeByteArrayToFile(cacheFile, bytes);
+
+        assertNull(SquidResultCache.load(cacheFile, FINGERPRINT).get("Model.swift", source));
+    }
+
+    private void save(String fingerprint) throws Exception {
+        SquidResultCache cache = SquidResultCache.load(cacheFile, fingerprint);
+        assertNull(cache.get("Model.swift", source));
+
+        SquidFileResult result = new SquidFileResult("Model.swift");
+        result.setDouble(SwiftMetric.FILES, 1.0);
+        result.setDouble(SwiftMetric.LINES_OF_CODE, 12.0);
+        result.addFunctionComplexity(1);
+        result.addFunctionComplexity(4);
+        result.addIssue(new SquidFileResult.SquidIssue(RuleKey.of("swift", "S1"), 3, "Too complex", 2.5));
+        result.addIssue(new SquidFileResult.SquidIssue(RuleKey.of("swift", "S2"), null, "File too long", null));
+        cache.put(result);
+        cache.save();
+
+        assertTrue(cacheFile.isFile());
+        assertFalse(new File(cacheFile.getPath() + ".tmp").exists());
+    }
+}
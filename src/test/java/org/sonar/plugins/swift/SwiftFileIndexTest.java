@@ -0,0 +1,102 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.resources.Resource;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SwiftFileIndexTest {
+
+    private DefaultFileSystem fileSystem;
+    private SwiftFileIndex fileIndex;
+
+    @Before
+    public void setUp() {
+        fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(new File("/project"));
+        add("Kit/Sources/Model.swift");
+        add("App/Sources/Model.swift");
+        add("App/Sources/ViewController.swift");
+        fileIndex = new SwiftFileIndex(fileSystem);
+    }
+
+    @Test
+    public void inputFileShouldResolveRelativeAndAbsolutePaths() {
+        String absolutePath = new File("/project/App/Sources/Model.swift").getAbsolutePath();
+
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFile("App/Sources/Model.swift").relativePath());
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFile(absolutePath).relativePath());
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFileByAbsolutePath(absolutePath).relativePath());
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFileByRelativePath("App/Sources/Model.swift").relativePath());
+        assertNull(fileIndex.inputFile("App/Sources/Missing.swift"));
+        assertNull(fileIndex.inputFileByRelativePath("Model.swift"));
+    }
+
+    @Test
+    public void inputFileShouldNormalizePaths() {
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFile("App/Tests/../Sources/./Model.swift").relativePath());
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFile("/project/Kit/../App/Sources/Model.swift").relativePath());
+        assertEquals("App/Sources/Model.swift", fileIndex.inputFileByRelativePath("App\\Sources\\Model.swift").relativePath());
+    }
+
+    @Test
+    public void inputFilesByBaseNameShouldBeInRelativePathOrder() {
+        List<InputFile> inputFiles = fileIndex.inputFilesByBaseName("Model.swift");
+
+        assertEquals(2, inputFiles.size());
+        assertEquals("App/Sources/Model.swift", inputFiles.get(0).relativePath());
+        assertEquals("Kit/Sources/Model.swift", inputFiles.get(1).relativePath());
+        assertTrue(fileIndex.inputFilesByBaseName("Missing.swift").isEmpty());
+    }
+
+    @Test
+    public void resourceShouldBeCachedOnceFound() {
+        InputFile inputFile = fileIndex.inputFile("App/Sources/Model.swift");
+        InputFile otherFile = fileIndex.inputFile("App/Sources/ViewController.swift");
+        Resource resource = mock(Resource.class);
+        SensorContext context = mock(SensorContext.class);
+        when(context.getResource(inputFile)).thenReturn(resource);
+
+        assertSame(resource, fileIndex.resource(context, inputFile));
+        assertSame(resource, fileIndex.resource(context, inputFile));
+        verify(context, times(1)).getResource(inputFile);
+
+        // missing resources are not cached
+        assertNull(fileIndex.resource(context, otherFile));
+        assertNull(fileIndex.resource(context, otherFile));
+        verify(context, times(2)).getResource(otherFile);
+    }
+
+    private void add(String relativePath) {
+        fileSystem.add(new DefaultInputFile("project", relativePath)
+                .setAbsolutePath(new File(fileSystem.baseDir(), relativePath).getAbsolutePath()));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.sonar.sslr.api.AstNode;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.Settings;
+import org.sonar.api.issue.Issuable;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.plugins.swift.cpd.SwiftTokenStore;
+import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+import org.sonar.plugins.swift.lang.checks.CheckList;
+import org.sonar.plugins.swift.lang.core.Swift;
+import org.sonar.squidbridge.checks.SquidCheck;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class SwiftSquidSensorTest {
+
+    private static final String[] SOURCES = {"Complexity.swift", "Test.swift", "parser/Sample.swift"};
+    private static final int COPIES = 3;
+
+    @Rule
+    public TemporaryFolder baseDir = new TemporaryFolder();
+
+    private final DefaultFileSystem fileSystem = new DefaultFileSystem();
+    private int fileCount;
+
+    @Before
+    public void setUp() throws Exception {
+        fileSystem.setBaseDir(baseDir.getRoot());
+        fileSystem.setEncoding(Charsets.UTF_8);
+        for (int i = 0; i < COPIES; i++) {
+            for (String source : SOURCES) {
+                String relativePath = "Sources/" + i + "/" + new File(source).getName();
+                File file = new File(baseDir.getRoot(), relativePath);
+                FileUtils.copyFile(new File("src/test/resources", source), file);
+                fileSystem.add(new DefaultInputFile("project", relativePath).setAbsolutePath(file.getAbsolutePath())
+                        .setLanguage(Swift.KEY).setType(InputFile.Type.MAIN));
+                fileCount++;
+            }
+        }
+    }
+
+    @Test
+    public void parallelScanShouldSaveTheMeasuresOfASequentialScan() {
+        SortedSet<String> sequential = measures(analyse(1, new ActiveRulesBuilder()));
+        SortedSet<String> parallel = measures(analyse(4, new ActiveRulesBuilder()));
+
+        assertEquals(sequential, parallel);
+        // FILES, LINES, NCLOC, STATEMENTS, COMMENT_LINES, FUNCTIONS, COMPLEXITY, COMPLEXITY_IN_FUNCTIONS per file
+        assertEquals(8 * fileCount, parallel.size());
+    }
+
+    @Test
+    public void activeChecksShouldKeepTheScanOnASingleThread() {
+        ActiveRulesBuilder activeRules = new ActiveRulesBuilder();
+        activeRules.create(RuleKey.of(CheckList.REPOSITORY_KEY, ThreadRecordingCheck.KEY)).activate();
+        ThreadRecordingCheck.THREADS.clear();
+
+        SensorContext context = mock(SensorContext.class);
+        when(context.getResource(any(InputFile.class))).thenReturn(mock(Resource.class));
+        Issuable issuable = mock(Issuable.class, RETURNS_DEEP_STUBS);
+        ResourcePerspectives perspectives = mock(ResourcePerspectives.class);
+        when(perspectives.as(eq(Issuable.class), any(Resource.class))).thenReturn(issuable);
+
+        // the project is not used by the sensor
+        newSensor(4, activeRules, perspectives).analyse(null, context);
+
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), ThreadRecordingCheck.THREADS);
+        verify(issuable, times(fileCount)).addIssue(any(Issue.class));
+    }
+
+    private SensorContext analyse(int threads, ActiveRulesBuilder activeRules) {
+        SensorContext context = mock(SensorContext.class);
+        newSensor(threads, activeRules, mock(ResourcePerspectives.class)).analyse(null, context);
+        return context;
+    }
+
+    private SwiftSquidSensor newSensor(int threads, ActiveRulesBuilder activeRules, ResourcePerspectives perspectives) {
+        Settings settings = new Settings();
+        settings.setProperty(SwiftSquidSensor.THREADS_KEY, threads);
+        List<Class> checks = ImmutableList.<Class>of(ThreadRecordingCheck.class);
+        return new SwiftSquidSensor(fileSystem, settings, new PathResolver(), perspectives,
+                new CheckFactory(activeRules.build()), checks, new SwiftTokenStore(), new SwiftFileIndex(fileSystem));
+    }
+
+    /**
+     * @return "relative path:metric=value" for each measure saved as a number
+     */
+    private static SortedSet<String> measures(SensorContext context) {
+        ArgumentCaptor<InputFile> files = ArgumentCaptor.forClass(InputFile.class);
+        ArgumentCaptor<Metric> metrics = ArgumentCaptor.forClass(Metric.class);
+        ArgumentCaptor<Double> values = ArgumentCaptor.forClass(Double.class);
+        verify(context, atLeastOnce()).saveMeasure(files.capture(), metrics.capture(), values.capture());
+        verify(context, atLeastOnce()).saveMeasure(any(InputFile.class), any(Measure.class));
+
+        SortedSet<String> measures = Sets.newTreeSet();
+        for (int i = 0; i < files.getAllValues().size(); i++) {
+            assertTrue(measures.add(files.getAllValues().get(i).relativePath() + ":" + metrics.getAllValues().get(i).getKey()
+                    + "=" + values.getAllValues().get(i)));
+        }
+        return measures;
+    }
+
+    @org.sonar.check.Rule(key = ThreadRecordingCheck.KEY)
+    public static class ThreadRecordingCheck extends SquidCheck<SwiftGrammar> {
+
+        static final String KEY = "ThreadRecording";
+        static final Set<String> THREADS = Collections.synchronizedSet(Sets.<String>newHashSet());
+
+        @Override
+        public void visitFile(AstNode astNode) {
+            THREADS.add(Thread.currentThread().getName());
+            getContext().createFileViolation(this, "Scanned");
+        }
+    }
+}
@@ -173,6 +173,36 @@ public class LizardReportParserTest {
         }
     }
 
+    @Test
+    public void parseReportShouldAttributeFunctionsToTheirExactFile() throws IOException {
+        File xmlFile = folder.newFile("nestedPaths.xml");
+        BufferedWriter out = new BufferedWriter(new FileWriter(xmlFile));
+        out.write("<?xml version=\"1.0\" ?>");
+        out.write("<cppncss><measure type=\"Function\"><labels><label>Nr.</label><label>NCSS</label><label>CCN</label></labels>");
+        out.write("<item name=\"load(...) at MyApp/Model.swift:10\"><value>1</value><value>5</value><value>4</value></item>");
+        out.write("<item name=\"save(...) at App/Model.swift:20\"><value>2</value><value>5</value><value>2</value></item>");
+        out.write("</measure>");
+        out.write("<measure type=\"File\"><labels><label>Nr.</label><label>NCSS</label><label>CCN</label><label>Functions</label></labels>");
+        out.write("<item name=\"MyApp/Model.swift\"><value>1</value><value>10</value><value>4</value><value>1</value></item>");
+        out.write("<item name=\"App/Model.swift\"><value>2</value><value>10</value><value>2</value><value>1</value></item>");
+        out.write("</measure></cppncss>");
+        out.close();
+
+        Map<String, List<Measure>> report = new LizardReportParser().parseReport(xmlFile);
+
+        assertNotNull("report is null", report);
+        for (Measure measure : report.get("App/Model.swift")) {
+            if (measure.getMetric().getKey().equals(CoreMetrics.COMPLEXITY_IN_FUNCTIONS_KEY)) {
+                assertEquals("App Complexity in Functions has a wrong value", 2, measure.getIntValue().intValue());
+            }
+        }
+        for (Measure measure : report.get("MyApp/Model.swift")) {
+            if (measure.getMetric().getKey().equals(CoreMetrics.COMPLEXITY_IN_FUNCTIONS_KEY)) {
+                assertEquals("MyApp Complexity in Functions has a wrong value", 4, measure.getIntValue().intValue());
+            }
+        }
+    }
+
     @Test
     public void parseReportShouldReturnNullWhenXMLFileIsIncorrect() {
         LizardReportParser parser = new LizardReportParser();
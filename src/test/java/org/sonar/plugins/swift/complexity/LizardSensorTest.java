@@ -21,12 +21,16 @@
 package org.sonar.plugins.swift.complexity;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.plugins.swift.SwiftFileIndex;
 import org.sonar.plugins.swift.lang.core.Swift;
 
+import java.io.IOException;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -37,6 +41,9 @@ import static org.mockito.Mockito.when;
 
 public class LizardSensorTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private Settings settings;
 
     @Before
@@ -48,15 +55,18 @@ public class LizardSensorTest {
      * this method tests that the sensor should be executed when a project is a root project and uses objective c
      */
     @Test
-    public void shouldExecuteOnProjectShouldBeTrueWhenProjectIsObjc() {
+    public void shouldExecuteOnProjectShouldBeTrueWhenProjectIsObjc() throws IOException {
         final Project project = new Project("Test");
 
         FileSystem fileSystem = mock(FileSystem.class);
         SortedSet<String> languages = new TreeSet<String>();
         languages.add(Swift.KEY);
         when(fileSystem.languages()).thenReturn(languages);
+        when(fileSystem.baseDir()).thenReturn(temporaryFolder.getRoot());
+        temporaryFolder.newFolder("sonar-reports");
+        temporaryFolder.newFile(LizardSensor.DEFAULT_REPORT_PATH);
 
-        final LizardSensor testedSensor = new LizardSensor(fileSystem, settings);
+        final LizardSensor testedSensor = new LizardSensor(fileSystem, settings, new SwiftFileIndex(fileSystem));
 
         assertTrue(testedSensor.shouldExecuteOnProject(project));
     }
@@ -70,7 +80,22 @@ public class LizardSensorTest {
         languages.add("Test");
         when(fileSystem.languages()).thenReturn(languages);
 
-        final LizardSensor testedSensor = new LizardSensor(fileSystem, settings);
+        final LizardSensor testedSensor = new LizardSensor(fileSystem, settings, new SwiftFileIndex(fileSystem));
+
+        assertFalse(testedSensor.shouldExecuteOnProject(project));
+    }
+
+    @Test
+    public void shouldExecuteOnProjectShouldBeFalseWithoutReport() {
+        final Project project = new Project("Test");
+
+        FileSystem fileSystem = mock(FileSystem.class);
+        SortedSet<String> languages = new TreeSet<String>();
+        languages.add(Swift.KEY);
+        when(fileSystem.languages()).thenReturn(languages);
+        when(fileSystem.baseDir()).thenReturn(temporaryFolder.getRoot());
+
+        final LizardSensor testedSensor = new LizardSensor(fileSystem, settings, new SwiftFileIndex(fileSystem));
 
         assertFalse(testedSensor.shouldExecuteOnProject(project));
     }
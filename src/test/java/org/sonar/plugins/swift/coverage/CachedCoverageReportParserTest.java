@@ -0,0 +1,160 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CachedCoverageReportParserTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void secondParseShouldReadTheCoverageFromTheCache() throws Exception {
+        File report = folder.newFile("llvm-cov.json");
+        FileUtils.copyURLToFile(getClass().getResource("/coverage/llvm-cov.json"), report);
+        File cacheDir = new File(folder.getRoot(), "cache");
+
+        Map<String, String> parsed = parse(new CachedCoverageReportParser(new LlvmCovReportParser(), cacheDir), report);
+        assertEquals(1, cacheDir.list().length);
+
+        Map<String, String> cached = parse(new CachedCoverageReportParser(new FailingParser(), cacheDir), report);
+        assertEquals(parsed, cached);
+    }
+
+    @Test
+    public void changedReportShouldBeParsedAgain() throws Exception {
+        File report = folder.newFile("llvm-cov.json");
+        FileUtils.copyURLToFile(getClass().getResource("/coverage/llvm-cov.json"), report);
+        File cacheDir = new File(folder.getRoot(), "cache");
+
+        parse(new CachedCoverageReportParser(new LlvmCovReportParser(), cacheDir), report);
+        assertTrue(report.setLastModified(report.lastModified() - 60000));
+
+        try {
+            parse(new CachedCoverageReportParser(new FailingParser(), cacheDir), report);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected, the cache is stale
+        }
+    }
+
+    @Test
+    public void corruptedCacheShouldBeIgnored() throws Exception {
+        File report = folder.newFile("llvm-cov.json");
+        FileUtils.copyURLToFile(getClass().getResource("/coverage/llvm-cov.json"), report);
+        File cacheDir = new File(folder.getRoot(), "cache");
+
+        Map<String, String> parsed = parse(new CachedCoverageReportParser(new LlvmCovReportParser(), cacheDir), report);
+        File cacheFile = cacheDir.listFiles()[0];
+        byte[] bytes = FileUtils.readFileToByteArray(cacheFile);
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        FileUtils.writeByteArrayToFile(cacheFile, truncated);
+
+        assertEquals(parsed, parse(new CachedCoverageReportParser(new LlvmCovReportParser(), cacheDir), report));
+    }
+
+    @Test
+    public void cacheCorruptedInPlaceShouldBeIgnoredWithoutDeliveringAFileTwice() throws Exception {
+        File report = folder.newFile("coverage.xml");
+        File cacheDir = new File(folder.getRoot(), "cache");
+
+        parse(new CachedCoverageReportParser(new TwoFilesParser(), cacheDir), report);
+        File cacheFile = cacheDir.listFiles()[0];
+        byte[] bytes = FileUtils.readFileToByteArray(cacheFile);
+        // the path length of the second file now goes past the end of the payload
+        String content = new String(bytes, "ISO-8859-1");
+        bytes[content.indexOf("Second.swift") - 1] = 0x7F;
+        FileUtils.writeByteArrayToFile(cacheFile, bytes);
+
+        final Set<String> delivered = Sets.newHashSet();
+        new CachedCoverageReportParser(new TwoFilesParser(), cacheDir).parseReport(report, new CoverageSink() {
+            @Override
+            public void accept(String filePath, LineCoverage coverage) {
+                assertTrue("Delivered twice: " + filePath, delivered.add(filePath));
+            }
+        });
+        assertEquals(Sets.newHashSet("First.swift", "Second.swift"), delivered);
+    }
+
+    @Test
+    public void failedParseShouldNotBeCached() throws Exception {
+        File report = folder.newFile("llvm-cov.json");
+        FileUtils.writeStringToFile(report, "{\"data\": [{\"files\": [{\"filename\": \"/project/Model.swift\", \"segments\": [[1, 1, 2", "UTF-8");
+        File cacheDir = new File(folder.getRoot(), "cache");
+
+        try {
+            parse(new CachedCoverageReportParser(new LlvmCovReportParser(), cacheDir), report);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected, the report is truncated
+        }
+        assertFalse(cacheDir.exists() && cacheDir.list().length > 0);
+    }
+
+    private static Map<String, String> parse(CoverageReportParser parser, File report) {
+        final Map<String, String> lineHitsByFile = Maps.newHashMap();
+        parser.parseReport(report, new CoverageSink() {
+            @Override
+            public void accept(String filePath, LineCoverage coverage) {
+                StringBuilder data = new StringBuilder();
+                for (Measure measure : coverage.createMeasures()) {
+                    data.append(measure.getMetricKey()).append('=')
+                            .append(measure.getData() != null ? measure.getData() : measure.getValue()).append(' ');
+                }
+                lineHitsByFile.put(filePath, data.toString());
+            }
+        });
+        return lineHitsByFile;
+    }
+
+    private static final class TwoFilesParser implements CoverageReportParser {
+        @Override
+        public void parseReport(File report, CoverageSink sink) {
+            for (String filePath : new String[] { "First.swift", "Second.swift" }) {
+                LineCoverage coverage = new LineCoverage();
+                coverage.setHits(1, 1);
+                coverage.setHits(2, 0);
+                sink.accept(filePath, coverage);
+            }
+        }
+    }
+
+    private static final class FailingParser implements CoverageReportParser {
+        @Override
+        public void parseReport(File report, CoverageSink sink) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
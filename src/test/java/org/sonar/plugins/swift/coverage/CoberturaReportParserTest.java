@@ -0,0 +1,107 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.utils.XmlParserException;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CoberturaReportParserTest {
+
+    private static final int FILES = 50;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseReportShouldMergeTheClassesOfAFile() throws Exception {
+        final List<String> filePaths = Lists.newArrayList();
+        final Map<String, LineCoverage> coverageByFile = Maps.newHashMap();
+        new CoberturaReportParser().parseReport(new File(getClass().getResource("/coverage/cobertura.xml").toURI()), new CoverageSink() {
+            @Override
+            public void accept(String filePath, LineCoverage coverage) {
+                filePaths.add(filePath);
+                coverageByFile.put(filePath, coverage);
+            }
+        });
+
+        // each file is handed over once, a file whose classes are not next to each other at the end
+        assertEquals(Lists.newArrayList("Sources/ViewController.swift", "Sources/Model.swift"), filePaths);
+
+        Collection<Measure> measures = coverageByFile.get("Sources/Model.swift").createMeasures();
+        assertEquals("3=2;4=2;20=1;21=0", measure(measures, CoreMetrics.COVERAGE_LINE_HITS_DATA).getData());
+        assertEquals(4.0, measure(measures, CoreMetrics.LINES_TO_COVER).getValue(), 0.0);
+        assertEquals(1.0, measure(measures, CoreMetrics.UNCOVERED_LINES).getValue(), 0.0);
+        assertEquals(2.0, measure(measures, CoreMetrics.CONDITIONS_TO_COVER).getValue(), 0.0);
+        assertEquals(1.0, measure(measures, CoreMetrics.UNCOVERED_CONDITIONS).getValue(), 0.0);
+    }
+
+    @Test
+    public void parseReportShouldHandOverEachFileBeforeTheEndOfItsPackage() throws Exception {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><coverage><packages><package name=\"App\"><classes>");
+        for (int i = 0; i < FILES; i++) {
+            xml.append("<class name=\"Type").append(i).append("\" filename=\"Sources/Type").append(i).append(".swift\">")
+                    .append("<lines><line number=\"1\" hits=\"").append(i).append("\"/></lines></class>");
+        }
+        // the report is cut before the end of its only package
+        File report = folder.newFile("coverage.xml");
+        FileUtils.writeStringToFile(report, xml.toString(), "UTF-8");
+
+        final List<String> filePaths = Lists.newArrayList();
+        try {
+            new CoberturaReportParser().parseReport(report, new CoverageSink() {
+                @Override
+                public void accept(String filePath, LineCoverage coverage) {
+                    filePaths.add(filePath);
+                }
+            });
+            fail();
+        } catch (XmlParserException e) {
+            // expected, the report is truncated
+        }
+
+        // all files but the last one, which may have more classes to come
+        assertEquals(FILES - 1, filePaths.size());
+        assertEquals("Sources/Type0.swift", filePaths.get(0));
+    }
+
+    private static Measure measure(Collection<Measure> measures, Metric metric) {
+        for (Measure measure : measures) {
+            if (metric.equals(measure.getMetric())) {
+                return measure;
+            }
+        }
+        throw new AssertionError("No measure for " + metric.getKey());
+    }
+}
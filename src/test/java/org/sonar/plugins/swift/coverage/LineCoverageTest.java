@@ -0,0 +1,80 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import org.junit.Test;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
+
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+
+public class LineCoverageTest {
+
+    @Test
+    public void createMeasuresShouldKeepTheFirstValueOfEachLine() {
+        LineCoverage coverage = new LineCoverage();
+        coverage.setHits(3, 2);
+        coverage.setHits(3, 0);
+        coverage.setHits(5, 0);
+        coverage.setHits(1000, 1);
+        coverage.setConditions(3, 2, 1);
+        coverage.setConditions(3, 4, 4);
+
+        Collection<Measure> measures = coverage.createMeasures();
+
+        assertEquals(3.0, value(measures, CoreMetrics.LINES_TO_COVER), 0.0);
+        assertEquals(1.0, value(measures, CoreMetrics.UNCOVERED_LINES), 0.0);
+        assertEquals(2.0, value(measures, CoreMetrics.CONDITIONS_TO_COVER), 0.0);
+        assertEquals(1.0, value(measures, CoreMetrics.UNCOVERED_CONDITIONS), 0.0);
+    }
+
+    @Test
+    public void mergeShouldSumHitsAndKeepTheBestConditions() {
+        LineCoverage unitTests = new LineCoverage();
+        unitTests.setHits(1, 0);
+        unitTests.setHits(2, 3);
+        unitTests.setConditions(2, 4, 1);
+
+        LineCoverage uiTests = new LineCoverage();
+        uiTests.setHits(1, 2);
+        uiTests.setHits(600, 0);
+        uiTests.setConditions(2, 4, 3);
+
+        unitTests.merge(uiTests);
+        Collection<Measure> measures = unitTests.createMeasures();
+
+        assertEquals(3.0, value(measures, CoreMetrics.LINES_TO_COVER), 0.0);
+        assertEquals(1.0, value(measures, CoreMetrics.UNCOVERED_LINES), 0.0);
+        assertEquals(4.0, value(measures, CoreMetrics.CONDITIONS_TO_COVER), 0.0);
+        assertEquals(1.0, value(measures, CoreMetrics.UNCOVERED_CONDITIONS), 0.0);
+    }
+
+    private static double value(Collection<Measure> measures, Metric metric) {
+        for (Measure measure : measures) {
+            if (metric.equals(measure.getMetric())) {
+                return measure.getValue();
+            }
+        }
+        throw new AssertionError("No measure for " + metric.getKey());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LlvmCovReportParserTest {
+
+    @Test
+    public void parseReportShouldComputeLineHitsAndBranchesOfEachFile() throws Exception {
+        final Map<String, LineCoverage> coverageByFile = Maps.newHashMap();
+        new LlvmCovReportParser().parseReport(new File(getClass().getResource("/coverage/llvm-cov.json").toURI()), new CoverageSink() {
+            @Override
+            public void accept(String filePath, LineCoverage coverage) {
+                coverageByFile.put(filePath, coverage);
+            }
+        });
+
+        assertEquals(1, coverageByFile.size());
+        Collection<Measure> measures = coverageByFile.get("/Users/dev/App/Sources/Model.swift").createMeasures();
+
+        // lines 9 to 11 are in a skipped region, the gap region of line 7 goes on over line 8
+        assertEquals("1=4;2=4;3=4;4=4;5=4;6=0;7=0;8=0;12=0;13=0", measure(measures, CoreMetrics.COVERAGE_LINE_HITS_DATA).getData());
+        assertEquals(10.0, measure(measures, CoreMetrics.LINES_TO_COVER).getValue(), 0.0);
+        assertEquals(5.0, measure(measures, CoreMetrics.UNCOVERED_LINES).getValue(), 0.0);
+        // branches of the functions section are not counted twice
+        assertEquals(4.0, measure(measures, CoreMetrics.CONDITIONS_TO_COVER).getValue(), 0.0);
+        assertEquals(1.0, measure(measures, CoreMetrics.UNCOVERED_CONDITIONS).getValue(), 0.0);
+    }
+
+    private static Measure measure(Collection<Measure> measures, Metric metric) {
+        for (Measure measure : measures) {
+            if (metric.equals(measure.getMetric())) {
+                return measure;
+            }
+        }
+        throw new AssertionError("No measure for " + metric.getKey());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.config.Settings;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class LlvmCovSensorTest {
+
+    @Rule
+    public TemporaryFolder baseDir = new TemporaryFolder();
+
+    private final Settings settings = new Settings();
+    private final DefaultFileSystem fileSystem = new DefaultFileSystem();
+
+    @Before
+    public void setUp() {
+        fileSystem.setBaseDir(baseDir.getRoot());
+        assertTrue(new File(baseDir.getRoot(), "sonar-reports").mkdir());
+    }
+
+    @Test
+    public void shouldBeDisabledWithoutLlvmCovReports() throws Exception {
+        baseDir.newFile("sonar-reports/coverage.xml");
+
+        assertFalse(LlvmCovSensor.isEnabled(fileSystem, settings));
+    }
+
+    @Test
+    public void shouldBeEnabledByAMatchingReport() throws Exception {
+        baseDir.newFile("sonar-reports/coverage.xml");
+        baseDir.newFile("sonar-reports/llvm-cov.json");
+
+        assertTrue(LlvmCovSensor.isEnabled(fileSystem, settings));
+    }
+
+    @Test
+    public void shouldUseTheConfiguredPattern() throws Exception {
+        baseDir.newFile("sonar-reports/llvm-cov.json");
+        settings.setProperty(LlvmCovSensor.REPORT_PATTERN_KEY, "build/*.json");
+
+        assertFalse(LlvmCovSensor.isEnabled(fileSystem, settings));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.coverage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MergedCoverageTest {
+
+    private static final String MODEL = new File("/project/Sources/Model.swift").getAbsolutePath();
+
+    @Test
+    public void saveToShouldHandOverEachFileOnceWithTheCoverageOfAllReports() {
+        assertMerged(2);
+    }
+
+    @Test
+    public void reportsShouldBeParsedInTurnWithASingleThread() {
+        assertMerged(1);
+    }
+
+    private static void assertMerged(int threads) {
+        DefaultFileSystem fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(new File("/project"));
+        fileSystem.add(new DefaultInputFile("project", "Sources/Model.swift").setAbsolutePath(MODEL));
+
+        // the same file, relative in one report and absolute in the other
+        CoverageReportParser parser = new CoverageReportParser() {
+            @Override
+            public void parseReport(File report, CoverageSink sink) {
+                LineCoverage coverage = new LineCoverage();
+                if ("first.xml".equals(report.getName())) {
+                    coverage.setHits(1, 1);
+                    coverage.setHits(2, 0);
+                    sink.accept("Sources/Model.swift", coverage);
+                } else {
+                    coverage.setHits(2, 3);
+                    sink.accept(MODEL, coverage);
+                    sink.accept("Sources/Missing.swift", new LineCoverage());
+                }
+            }
+        };
+
+        MergedCoverage mergedCoverage = new MergedCoverage(parser, new SwiftFileIndex(fileSystem), threads);
+        mergedCoverage.parseReports(Lists.newArrayList(new File("first.xml"), new File("second.xml")));
+
+        final Map<String, LineCoverage> coverageByFile = Maps.newHashMap();
+        mergedCoverage.saveTo(new CoverageSink() {
+            @Override
+            public void accept(String filePath, LineCoverage coverage) {
+                assertNull("Saved twice: " + filePath, coverageByFile.put(filePath, coverage));
+            }
+        });
+
+        assertEquals(2, coverageByFile.size());
+        assertTrue(coverageByFile.containsKey("Sources/Missing.swift"));
+        assertEquals("1=1;2=3", lineHits(coverageByFile.get(MODEL).createMeasures()));
+    }
+
+    private static String lineHits(Collection<Measure> measures) {
+        for (Measure measure : measures) {
+            if (CoreMetrics.COVERAGE_LINE_HITS_DATA.equals(measure.getMetric())) {
+                return measure.getData();
+            }
+        }
+        throw new AssertionError("No measure for " + CoreMetrics.COVERAGE_LINE_HITS_DATA.getKey());
+    }
+}
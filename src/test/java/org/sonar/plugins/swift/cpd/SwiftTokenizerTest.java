@@ -0,0 +1,86 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.cpd;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokens;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.plugins.swift.lang.SwiftAstScanner;
+import org.sonar.plugins.swift.lang.SwiftConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SwiftTokenizerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final SwiftTokenStore tokenStore = new SwiftTokenStore();
+
+    private final SwiftTokenizer tokenizer = new SwiftTokenizer(Charsets.UTF_8, tokenStore);
+
+    @Test
+    public void tokenizeShouldReadTokensStoredByTheScanner() throws IOException {
+        File file = temporaryFolder.newFile("Test.swift");
+        Files.write("let answer = 42\n", file, Charsets.UTF_8);
+
+        SwiftAstScanner.create(new SwiftConfiguration(), new SwiftTokenStoreVisitor(tokenStore)).scanFile(file);
+        // Lexing the file again would return these tokens instead of the stored ones
+        Files.write("var other = 0\n", file, Charsets.UTF_8);
+
+        assertEquals("[let, answer, =, 42, EOF]", images(tokenize(file)));
+        assertNull(tokenStore.remove(file));
+    }
+
+    @Test
+    public void tokenizeShouldLexFilesMissingFromTheStore() throws IOException {
+        File file = temporaryFolder.newFile("Test.swift");
+        Files.write("var other = 0\n", file, Charsets.UTF_8);
+
+        assertEquals("[var, other, =, 0, EOF]", images(tokenize(file)));
+    }
+
+    private Tokens tokenize(File file) throws IOException {
+        Tokens tokens = new Tokens();
+        tokenizer.tokenize(new SourceCode(new SourceCode.FileCodeLoader(file, "UTF-8")), tokens);
+        return tokens;
+    }
+
+    private static String images(Tokens tokens) {
+        List<String> images = new ArrayList<String>();
+        for (TokenEntry token : tokens.getTokens()) {
+            if (token != TokenEntry.getEOF()) {
+                images.add(token.getValue());
+            }
+        }
+        return images.toString();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.rule.RuleKey;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ActiveRuleKeysTest {
+
+	@Test
+	public void ruleKeyShouldOnlyResolveActiveRulesOfTheRepository() {
+		RuleKey lineLength = RuleKey.of("swiftlint", "line_length");
+		ActiveRule activeRule = mock(ActiveRule.class);
+		when(activeRule.ruleKey()).thenReturn(lineLength);
+		ActiveRules activeRules = mock(ActiveRules.class);
+		when(activeRules.findByRepository("swiftlint")).thenReturn(Arrays.asList(activeRule));
+
+		ActiveRuleKeys ruleKeys = new ActiveRuleKeys(activeRules, "swiftlint");
+
+		assertSame(lineLength, ruleKeys.ruleKey("line_length"));
+		assertSame(lineLength, ruleKeys.ruleKey("line_length"));
+		assertNull(ruleKeys.ruleKey("unknown_rule"));
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import org.junit.Test;
+import org.sonar.api.rule.RuleKey;
+
+import static org.junit.Assert.*;
+
+public class ExternalIssuePublisherTest {
+
+	@Test
+	public void hashShouldIdentifyIssuesByFileLineRuleAndMessage() {
+		RuleKey rule = RuleKey.of("swiftlint", "line_length");
+		long hash = ExternalIssuePublisher.hash(new ExternalIssue("/App/A.swift", 3, rule, "Too long"));
+
+		assertEquals(hash, ExternalIssuePublisher.hash(new ExternalIssue("/App/A.swift", 3, rule, "Too long")));
+		assertFalse(hash == ExternalIssuePublisher.hash(new ExternalIssue("/App/B.swift", 3, rule, "Too long")));
+		assertFalse(hash == ExternalIssuePublisher.hash(new ExternalIssue("/App/A.swift", 4, rule, "Too long")));
+		assertFalse(hash == ExternalIssuePublisher.hash(new ExternalIssue("/App/A.swift", 3, RuleKey.of("swiftlint", "file_length"), "Too long")));
+		assertFalse(hash == ExternalIssuePublisher.hash(new ExternalIssue("/App/A.swift", 3, rule, null)));
+	}
+}
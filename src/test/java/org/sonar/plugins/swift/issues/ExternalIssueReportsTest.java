@@ -0,0 +1,62 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+import org.sonar.api.config.Settings;
+import org.sonar.api.rule.RuleKey;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+public class ExternalIssueReportsTest {
+
+	@Test
+	public void parseShouldKeepTheOrderOfTheReportsWhenParsingConcurrently() {
+		Settings settings = new Settings();
+		settings.setProperty(ExternalIssueReports.THREADS_KEY, "4");
+
+		List<File> reports = Lists.newArrayList();
+		for (int i = 0; i < 40; i++) {
+			reports.add(new File("Module" + i + "-swiftlint.txt"));
+		}
+
+		List<ExternalIssue> issues = ExternalIssueReports.parse(reports, new ExternalIssueReportParser() {
+			@Override
+			public List<ExternalIssue> parseReport(File reportFile) {
+				List<ExternalIssue> issues = Lists.newArrayList();
+				for (int line = 1; line <= 3; line++) {
+					issues.add(new ExternalIssue(reportFile.getName(), line, RuleKey.of("swiftlint", "line_length"), null));
+				}
+				return issues;
+			}
+		}, settings, "SwiftLint");
+
+		assertEquals(120, issues.size());
+		for (int i = 0; i < issues.size(); i++) {
+			assertEquals("Module" + i / 3 + "-swiftlint.txt", issues.get(i).getFilePath());
+			assertEquals(i % 3 + 1, issues.get(i).getLine());
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+	@Test
+	public void addShouldRejectValuesAlreadyAdded() {
+		LongHashSet set = new LongHashSet();
+		for (long value = -5000; value < 5000; value++) {
+			assertTrue(set.add(value * 31));
+		}
+		for (long value = -5000; value < 5000; value++) {
+			assertFalse(set.add(value * 31));
+		}
+		assertEquals(10000, set.size());
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues.swiftlint;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SwiftLintLineParserTest {
+
+    private final SwiftLintLineParser parser = new SwiftLintLineParser();
+
+    @Test
+    public void parseShouldReadAllFieldsOfAViolation() {
+        assertTrue(parser.parse("/Users/dev/App/Sources/Model.swift:12:5: warning: Line Length Violation: Line should be 120 characters or less: currently 130 characters (line_length)"));
+
+        assertEquals("/Users/dev/App/Sources/Model.swift", parser.getFilePath());
+        assertEquals(12, parser.getLine());
+        assertEquals(5, parser.getColumn());
+        assertEquals("warning", parser.getSeverity());
+        assertEquals("Line Length Violation: Line should be 120 characters or less: currently 130 characters", parser.getMessage());
+        assertEquals("line_length", parser.getRuleId());
+    }
+
+    @Test
+    public void parseShouldAcceptViolationsWithoutColumn() {
+        assertTrue(parser.parse("/App/Model.swift:7: error: Force Cast Violation: Force casts should be avoided. (force_cast)"));
+
+        assertEquals("/App/Model.swift", parser.getFilePath());
+        assertEquals(7, parser.getLine());
+        assertEquals(0, parser.getColumn());
+        assertEquals("error", parser.getSeverity());
+        assertEquals("Force Cast Violation: Force casts should be avoided.", parser.getMessage());
+        assertEquals("force_cast", parser.getRuleId());
+    }
+
+    @Test
+    public void parseShouldUseTheLastParenthesesForTheRule() {
+        assertTrue(parser.parse("/App/Model (copy).swift:3:1: warning: Type Name Violation: Type name should be (at most) 40 characters long (type_name)"));
+
+        assertEquals("/App/Model (copy).swift", parser.getFilePath());
+        assertEquals("Type Name Violation: Type name should be (at most) 40 characters long", parser.getMessage());
+        assertEquals("type_name", parser.getRuleId());
+    }
+
+    @Test
+    public void parseShouldRejectOtherLines() {
+        assertFalse(parser.parse("Linting Swift files at paths"));
+        assertFalse(parser.parse("Linting 'Model.swift' (1/2)"));
+        assertFalse(parser.parse("/App/Model.swift:12:5: note: something (rule)"));
+        assertFalse(parser.parse("/App/Model.swift:12:5: warning: no rule"));
+        assertFalse(parser.parse(""));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues.tailor;
+
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class TailorLineParserTest {
+
+	private static final int SAMPLE_LINES = 20;
+
+	private final TailorLineParser parser = new TailorLineParser();
+
+	@Test
+	public void parseShouldReadAllFieldsOfAViolation() {
+		assertTrue(parser.parse("/Users/dev/App/Sources/Model.swift:12:5: warning: [trailing-whitespace] Line should not have any trailing whitespace"));
+
+		assertEquals("/Users/dev/App/Sources/Model.swift", parser.getFilePath());
+		assertEquals(12, parser.getLine());
+		assertEquals(5, parser.getColumn());
+		assertEquals("warning", parser.getSeverity());
+		assertEquals("trailing-whitespace", parser.getRuleId());
+		assertEquals("Line should not have any trailing whitespace", parser.getMessage());
+	}
+
+	@Test
+	public void parseShouldKeepBracketsOfTheMessage() {
+		assertTrue(parser.parse("/App/Model.swift:3:1: error: [brace-style] Closing brace ] should be on its own line: [x] "));
+
+		assertEquals("error", parser.getSeverity());
+		assertEquals("brace-style", parser.getRuleId());
+		assertEquals("Closing brace ] should be on its own line: [x] ", parser.getMessage());
+	}
+
+	@Test
+	public void parseShouldRejectOtherLines() {
+		assertFalse(parser.parse("Analyzed 12 files, skipped 0 files, and detected 3 violations (0 errors, 3 warnings)."));
+		assertFalse(parser.parse("/App/Model.swift:12:5: warning: no rule"));
+		assertFalse(parser.parse("/App/Model.swift:x:5: warning: [rule] message"));
+		assertFalse(parser.parse(""));
+	}
+
+	/**
+	 * The parser replaces this regular expression: both must read the same fields.
+	 */
+	@Test
+	public void parseShouldMatchTheFormerRegularExpression() {
+		Pattern pattern = Pattern.compile("(.*.swift):(\\w+):(\\w+): (.*): \\[(.*)\\] (.*)");
+
+		for (int i = 0; i < SAMPLE_LINES; i++) {
+			String line = "/Users/dev/App/Module" + (i % 4) + "/ViewController" + i + ".swift:" + (i + 1) + ":" + (i % 80 + 1)
+					+ ": " + (i % 2 == 0 ? "warning" : "error") + ": [max-line-length] Line " + i + " is too long";
+			Matcher matcher = pattern.matcher(line);
+
+			assertTrue(matcher.matches());
+			assertTrue(parser.parse(line));
+			assertEquals(matcher.group(1), parser.getFilePath());
+			assertEquals(Integer.parseInt(matcher.group(2)), parser.getLine());
+			assertEquals(Integer.parseInt(matcher.group(3)), parser.getColumn());
+			assertEquals(matcher.group(4), parser.getSeverity());
+			assertEquals(matcher.group(5), parser.getRuleId());
+			assertEquals(matcher.group(6), parser.getMessage());
+		}
+	}
+}
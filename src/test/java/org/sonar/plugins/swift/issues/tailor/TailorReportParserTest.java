@@ -0,0 +1,80 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.issues.tailor;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.swift.issues.ActiveRuleKeys;
+import org.sonar.plugins.swift.issues.ExternalIssue;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TailorReportParserTest {
+
+	private static final RuleKey TRAILING_WHITESPACE = RuleKey.of(TailorRulesDefinition.REPOSITORY_KEY, "trailing-whitespace");
+	private static final RuleKey MAX_LINE_LENGTH = RuleKey.of(TailorRulesDefinition.REPOSITORY_KEY, "max-line-length");
+	private static final RuleKey TERMINATING_NEWLINE = RuleKey.of(TailorRulesDefinition.REPOSITORY_KEY, "terminating-newline");
+
+	@Test
+	public void parseReportShouldReadJsonViolations() {
+		List<ExternalIssue> issues = parser().parseReport(new File("src/test/resources/issues/tailor.json"));
+
+		assertEquals(3, issues.size());
+
+		// the location gives the line, the column is not kept
+		assertIssue(issues.get(0), "/Users/dev/App/Sources/Model.swift", 12, TRAILING_WHITESPACE,
+				"Line should not have any trailing whitespace");
+		// the severity of the issue comes from the rule, whatever Tailor reports
+		assertIssue(issues.get(1), "/Users/dev/App/Sources/Model.swift", 30, MAX_LINE_LENGTH,
+				"Line should have a maximum of 100 characters");
+		// no location, and a path written after the violations
+		assertIssue(issues.get(2), "/Users/dev/App/Sources/ViewController.swift", 1, TERMINATING_NEWLINE,
+				"File should terminate with exactly one newline character");
+	}
+
+	private static TailorReportParser parser() {
+		List<ActiveRule> rules = Arrays.asList(
+				activeRule(TRAILING_WHITESPACE), activeRule(MAX_LINE_LENGTH), activeRule(TERMINATING_NEWLINE));
+		ActiveRules activeRules = mock(ActiveRules.class);
+		when(activeRules.findByRepository(TailorRulesDefinition.REPOSITORY_KEY)).thenReturn(rules);
+		return new TailorReportParser(new ActiveRuleKeys(activeRules, TailorRulesDefinition.REPOSITORY_KEY));
+	}
+
+	private static ActiveRule activeRule(RuleKey ruleKey) {
+		ActiveRule activeRule = mock(ActiveRule.class);
+		when(activeRule.ruleKey()).thenReturn(ruleKey);
+		return activeRule;
+	}
+
+	private static void assertIssue(ExternalIssue issue, String filePath, int line, RuleKey ruleKey, String message) {
+		assertEquals(filePath, issue.getFilePath());
+		assertEquals(line, issue.getLine());
+		assertEquals(ruleKey, issue.getRuleKey());
+		assertEquals(message, issue.getMessage());
+	}
+}
@@ -21,9 +21,12 @@ package org.sonar.plugins.swift.lang;
 
 import org.junit.Test;
 import org.sonar.plugins.swift.lang.api.SwiftMetric;
+import org.sonar.squidbridge.api.SourceCode;
 import org.sonar.squidbridge.api.SourceFile;
 
 import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -47,4 +50,33 @@ public class SwiftAstScannerTest {
         SourceFile file = SwiftAstScanner.scanSingleFile(new File("src/test/resources/Test.swift"));
         assertThat(file.getInt(SwiftMetric.COMMENT_LINES), is(3));
     }
+
+    @Test
+    public void testStatementCount() {
+        SourceFile file = SwiftAstScanner.scanSingleFile(new File("src/test/resources/Test.swift"));
+        // if and both returns: imports, types and their members are declarations
+        assertThat(file.getInt(SwiftMetric.STATEMENTS), is(3));
+    }
+
+    @Test
+    public void testFunctionCount() {
+        SourceFile file = SwiftAstScanner.scanSingleFile(new File("src/test/resources/Complexity.swift"));
+        assertThat(file.getInt(SwiftMetric.FUNCTIONS), is(6));
+    }
+
+    @Test
+    public void testComplexity() {
+        SourceFile file = SwiftAstScanner.scanSingleFile(new File("src/test/resources/Complexity.swift"));
+        assertThat(file.getInt(SwiftMetric.COMPLEXITY), is(1 + 5 + 9 + 1 + 1 + 2));
+    }
+
+    @Test
+    public void testFunctionComplexity() {
+        SourceFile file = SwiftAstScanner.scanSingleFile(new File("src/test/resources/Complexity.swift"));
+        Map<String, Integer> complexities = new TreeMap<String, Integer>();
+        for (SourceCode function : file.getChildren()) {
+            complexities.put(function.getName(), function.getInt(SwiftMetric.COMPLEXITY));
+        }
+        assertThat(complexities.toString(), is("{describe=9, greet=5, init=1, subscript=1, validate=1}"));
+    }
 }
@@ -21,9 +21,13 @@ package org.sonar.plugins.swift.lang.lexer;
 
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
 import com.sonar.sslr.impl.Lexer;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.sonar.plugins.swift.lang.api.SwiftKeyword;
+import org.sonar.plugins.swift.lang.api.SwiftPunctuator;
+import org.sonar.plugins.swift.lang.api.SwiftTokenType;
 
 import java.io.File;
 import java.util.List;
@@ -31,6 +35,7 @@ import java.util.List;
 import static com.sonar.sslr.test.lexer.LexerMatchers.hasComment;
 import static com.sonar.sslr.test.lexer.LexerMatchers.hasToken;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
 public class SwiftLexerTest {
@@ -48,6 +53,13 @@ public class SwiftLexerTest {
         assertThat(lexer.lex("/**/"), hasComment("/**/"));
     }
 
+    @Test
+    public void testLexNestedMultiLinesComment() {
+        List<Token> tokens = lexer.lex("/* outer /* inner */ still outer */ code");
+        assertThat(tokens, hasComment("/* outer /* inner */ still outer */"));
+        assertThat(tokens, hasToken("code", GenericTokenType.IDENTIFIER));
+    }
+
     @Test
     public void testLexInlineComment() {
         assertThat(lexer.lex("// My Comment \n new line"), hasComment("// My Comment "));
@@ -62,7 +74,74 @@ public class SwiftLexerTest {
 
     @Test
     public void testLexLineOfCode() {
-        assertThat(lexer.lex("self.hello()"), hasToken("self.hello()", GenericTokenType.LITERAL));
+        List<Token> tokens = lexer.lex("self.hello()");
+        assertThat(tokens, hasToken("self", SwiftKeyword.SELF));
+        assertThat(tokens, hasToken(".", SwiftPunctuator.DOT));
+        assertThat(tokens, hasToken("hello", GenericTokenType.IDENTIFIER));
+        assertThat(tokens, hasToken("(", SwiftPunctuator.LPARENTHESIS));
+        assertThat(tokens.size(), equalTo(6));
+    }
+
+    @Test
+    public void testLexContextualKeywordAsIdentifier() {
+        assertThat(lexer.lex("let set = get"), hasToken("set", GenericTokenType.IDENTIFIER));
+        assertThat(lexer.lex("let set = get"), hasToken("let", SwiftKeyword.LET));
+        assertThat(lexer.lex("let `default` = 1"), hasToken("`default`", GenericTokenType.IDENTIFIER));
+    }
+
+    @Test
+    public void testLexNumbers() {
+        assertThat(lexer.lex("0x1F_FF"), hasToken("0x1F_FF", SwiftTokenType.NUMERIC_LITERAL));
+        assertThat(lexer.lex("1.5e-3"), hasToken("1.5e-3", SwiftTokenType.NUMERIC_LITERAL));
+        List<Token> tokens = lexer.lex("0..<10");
+        assertThat(tokens, hasToken("0", SwiftTokenType.NUMERIC_LITERAL));
+        assertThat(tokens, hasToken("..<", SwiftTokenType.OPERATOR));
+    }
+
+    @Test
+    public void testLexPostfixOperators() {
+        List<Token> tokens = lexer.lex("a?.b! ?? c");
+        assertThat(tokens, hasToken("?", SwiftTokenType.OPERATOR));
+        assertThat(tokens, hasToken("!", SwiftTokenType.OPERATOR));
+        assertThat(tokens, hasToken("??", SwiftTokenType.OPERATOR));
+        assertThat(tokens.size(), equalTo(8));
+
+        assertThat(lexer.lex("a != b"), hasToken("!=", SwiftTokenType.OPERATOR));
+    }
+
+    @Test
+    public void testLexNestedGenericArguments() {
+        List<Token> tokens = lexer.lex("Set<Array<Int>>?");
+        assertThat(tokens.size(), equalTo(9));
+        assertThat(tokens.get(5).getValue(), equalTo(">"));
+        assertThat(tokens.get(6).getValue(), equalTo(">"));
+        assertThat(tokens.get(7).getValue(), equalTo("?"));
+
+        assertThat(lexer.lex("a >>= 1"), hasToken(">>=", SwiftTokenType.OPERATOR));
+    }
+
+    @Test
+    public void testLexCommentMarkersInString() {
+        List<Token> tokens = lexer.lex("let url = \"http://sonarqube.org/*\"");
+        assertThat(tokens, hasToken("\"http://sonarqube.org/*\"", SwiftTokenType.STRING_LITERAL));
+        assertThat(tokens.size(), equalTo(5));
+    }
+
+    @Test
+    public void testLexInterpolatedString() {
+        List<Token> tokens = lexer.lex("print(\"a \\(b(\"//\")) c\")");
+        assertThat(tokens, hasToken("\"a \\(b(\"//\")) c\"", SwiftTokenType.STRING_LITERAL));
+        assertThat(tokens.size(), equalTo(5));
+    }
+
+    @Test
+    public void testLexMultiLineString() {
+        List<Token> tokens = lexer.lex("let s = \"\"\"\n// not a comment\n\"\"\"\nfoo");
+        assertThat(tokens, not(hasComment("// not a comment")));
+        assertThat(tokens.size(), equalTo(6));
+        assertThat(tokens.get(3).getType(), equalTo((TokenType) SwiftTokenType.STRING_LITERAL));
+        assertThat(tokens.get(4).getValue(), equalTo("foo"));
+        assertThat(tokens.get(4).getLine(), equalTo(4));
     }
 
     @Test
@@ -0,0 +1,147 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.lang.parser;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.impl.Parser;
+import org.junit.Test;
+import org.sonar.plugins.swift.lang.api.SwiftGrammar;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SwiftParserTest {
+
+    private static final File SAMPLE = new File("src/test/resources/parser/Sample.swift");
+
+    private static final int REPEATED_COPIES = 3;
+    private static final int LARGE_COPIES = 200;
+    private static final int NESTING_DEPTH = 40;
+
+    private final Parser<SwiftGrammar> parser = SwiftParser.create();
+
+    @Test
+    public void parseShouldNotRecoverOnValidCode() {
+        AstNode root = parser.parse(SAMPLE);
+        SwiftGrammar grammar = parser.getGrammar();
+
+        assertEquals("", describe(root.getDescendants(grammar.recoveredToken)));
+        assertEquals("", describe(root.getDescendants(grammar.blockRecoveredToken)));
+    }
+
+    @Test
+    public void parseShouldBuildDeclarationsAndStatements() {
+        AstNode root = parser.parse(SAMPLE);
+        SwiftGrammar grammar = parser.getGrammar();
+
+        assertEquals(11, root.getDescendants(grammar.functionDeclaration).size());
+        assertEquals(2, root.getDescendants(grammar.initializerDeclaration).size());
+        assertEquals(1, root.getDescendants(grammar.deinitializerDeclaration).size());
+        assertEquals(1, root.getDescendants(grammar.subscriptDeclaration).size());
+        assertEquals(5, root.getDescendants(grammar.typeDeclaration).size());
+        assertEquals(1, root.getDescendants(grammar.switchStatement).size());
+        assertEquals(3, root.getDescendants(grammar.guardStatement).size());
+        assertEquals(2, root.getDescendants(grammar.catchClause).size());
+        assertTrue(root.getDescendants(grammar.closureExpression).size() >= 10);
+    }
+
+    @Test
+    public void parseShouldRecoverFromInvalidCode() {
+        AstNode root = parser.parse("func broken( {\n    let x = = 1\n}\nlet y = 2\n");
+        SwiftGrammar grammar = parser.getGrammar();
+
+        assertTrue(root.getDescendants(grammar.recoveredToken).size() + root.getDescendants(grammar.blockRecoveredToken).size() > 0);
+        List<AstNode> variables = root.getDescendants(grammar.variableDeclaration);
+        assertEquals(4, variables.get(variables.size() - 1).getTokenLine());
+    }
+
+    /**
+     * Memoized results must not leak from one copy of the sample to the next.
+     */
+    @Test
+    public void parseShouldNotRecoverOnRepeatedSource() throws IOException {
+        String sample = Files.toString(SAMPLE, Charsets.UTF_8);
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < REPEATED_COPIES; i++) {
+            source.append(sample.replace("let debugMode", "let debugMode" + i)).append('\n');
+        }
+
+        AstNode root = parser.parse(source.toString());
+        SwiftGrammar grammar = parser.getGrammar();
+
+        assertEquals("", describe(root.getDescendants(grammar.recoveredToken)));
+        assertEquals("", describe(root.getDescendants(grammar.blockRecoveredToken)));
+        assertEquals(11 * REPEATED_COPIES, root.getDescendants(grammar.functionDeclaration).size());
+    }
+
+    /**
+     * Backtracking without memoization grows exponentially with nesting: the large source parses in about a
+     * second, the timeout is far from it but well below what a non linear parse would take.
+     */
+    @Test(timeout = 30000)
+    public void parseShouldStayLinearOnLargeAndDeeplyNestedSource() throws IOException {
+        String sample = Files.toString(SAMPLE, Charsets.UTF_8);
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < LARGE_COPIES; i++) {
+            source.append(sample.replace("let debugMode", "let debugMode" + i)).append('\n');
+        }
+        source.append("let calls = ").append(nested("f(", "x", ")")).append('\n');
+        source.append("let closures = ").append(nested("run { ", "$0", " }")).append('\n');
+        source.append("let generics: ").append(nested("Array<", "Int", ">")).append(" = []\n");
+        source.append("let mixed = ").append(nested("map { [x] in g(", "x", ") }")).append('\n');
+
+        AstNode root = parser.parse(source.toString());
+        SwiftGrammar grammar = parser.getGrammar();
+
+        assertEquals("", describe(root.getDescendants(grammar.recoveredToken)));
+        assertEquals("", describe(root.getDescendants(grammar.blockRecoveredToken)));
+        assertEquals(11 * LARGE_COPIES, root.getDescendants(grammar.functionDeclaration).size());
+    }
+
+    /**
+     * @return the innermost code wrapped {@link #NESTING_DEPTH} times, "f(f(x))" for a depth of 2
+     */
+    private static String nested(String open, String innermost, String close) {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < NESTING_DEPTH; i++) {
+            code.append(open);
+        }
+        code.append(innermost);
+        for (int i = 0; i < NESTING_DEPTH; i++) {
+            code.append(close);
+        }
+        return code.toString();
+    }
+
+    private static String describe(List<AstNode> nodes) {
+        List<String> tokens = new ArrayList<String>();
+        for (AstNode node : nodes) {
+            tokens.add(node.getTokenLine() + ":" + node.getTokenValue());
+        }
+        return tokens.isEmpty() ? "" : tokens.toString();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.plugins.surefire.TestCaseDetails;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class SwiftSurefireParserTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseFilesShouldKeepEachClassOnceInReportOrder() throws Exception {
+        File first = report("TEST-first.xml", "<testsuites><testsuite name=\"AppTests\">"
+                + "<testcase classname=\"AppTests.LoginTests\" name=\"testLogin\" time=\"0.5\"/>"
+                + "<testcase classname=\"AppTests.LoginTests\" name=\"testLogout\" time=\"0.25\">"
+                + "<failure message=\"expected\">LoginTests.swift:12</failure></testcase>"
+                + "</testsuite></testsuites>");
+        File second = report("TEST-second.xml", "<testsuites><testsuite name=\"AppTests\">"
+                + "<testcase classname=\"AppTests.LoginTests\" name=\"testLogin\" time=\"0.5\"/>"
+                + "</testsuite></testsuites>");
+        File third = report("report.junit", "<testsuites><testsuite name=\"KitTests\">"
+                + "<testcase classname=\"KitTests.ParserTests\" name=\"testParse\" time=\"1\"/>"
+                + "</testsuite></testsuites>");
+
+        DefaultFileSystem fileSystem = new DefaultFileSystem();
+        SwiftSurefireParser parser = new SwiftSurefireParser(null, mock(SensorContext.class),
+                new SwiftFileIndex(fileSystem), 0, 2);
+
+        List<TestSuiteSnapshot> suites = parser.parseFiles(new File[]{first, second, third});
+
+        assertEquals(2, suites.size());
+        TestSuiteSnapshot login = suites.get(0);
+        assertEquals("AppTests.LoginTests", login.getClassKey());
+        assertEquals(2, login.getTests());
+        assertEquals(1, login.getFailures());
+        assertEquals(750, login.getTimeMS());
+        assertEquals(TestCaseDetails.STATUS_FAILURE, login.getDetails().get(1).getStatus());
+        assertEquals("expected", login.getDetails().get(1).getErrorMessage());
+        assertEquals("KitTests.ParserTests", suites.get(1).getClassKey());
+    }
+
+    private File report(String name, String content) throws Exception {
+        File report = folder.newFile(name);
+        FileUtils.write(report, content, "UTF-8");
+        return report;
+    }
+}
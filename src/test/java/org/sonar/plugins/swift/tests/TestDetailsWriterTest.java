@@ -0,0 +1,49 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sonar.plugins.surefire.TestCaseDetails;
+
+import static org.junit.Assert.*;
+
+public class TestDetailsWriterTest {
+
+    @Test
+    public void writeShouldEscapeTextAndReuseTheBuffer() {
+        TestDetailsWriter writer = new TestDetailsWriter(0);
+
+        assertEquals("<tests-details><testcase status=\"ok\" time=\"12\" name=\"testA&lt;T&gt;\"/></tests-details>",
+                writer.write(ImmutableList.of(new TestCaseSnapshot("testA<T>", TestCaseDetails.STATUS_OK, 12, null, null))));
+        assertEquals("<tests-details><testcase status=\"failure\" time=\"3\" name=\"testB\">"
+                + "<failure message=\"a &amp; &quot;b&quot;\"><![CDATA[at x &lt; y]]></failure></testcase></tests-details>",
+                writer.write(ImmutableList.of(new TestCaseSnapshot("testB", TestCaseDetails.STATUS_FAILURE, 3, "a & \"b\"", "at x < y"))));
+    }
+
+    @Test
+    public void writeShouldCutStackTracesToTheByteBudget() {
+        TestDetailsWriter writer = new TestDetailsWriter(8);
+
+        // "é" takes 2 bytes and "&amp;" 5: the budget is reached after "ab&amp;"
+        String xml = writer.write(ImmutableList.of(new TestCaseSnapshot("t", TestCaseDetails.STATUS_ERROR, 0, "m", "ab&éé")));
+        assertTrue(xml, xml.contains("<![CDATA[ab&amp;" + TestDetailsWriter.TRUNCATED + "]]></error>"));
+    }
+}
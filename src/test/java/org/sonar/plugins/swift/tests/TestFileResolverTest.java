@@ -0,0 +1,58 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import org.junit.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.plugins.swift.SwiftFileIndex;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class TestFileResolverTest {
+
+    @Test
+    public void resolveShouldPreferTestFilesThenFilesOfTheModule() {
+        DefaultFileSystem fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(new File("/project"));
+        add(fileSystem, "App/LoginTests.swift", InputFile.Type.MAIN);
+        add(fileSystem, "AppTests/LoginTests.swift", InputFile.Type.TEST);
+        add(fileSystem, "KitTests/LoginTests.swift", InputFile.Type.TEST);
+        add(fileSystem, "KitTests/ParserTests.swift", InputFile.Type.TEST);
+
+        TestFileResolver resolver = new TestFileResolver(new SwiftFileIndex(fileSystem));
+
+        assertEquals("KitTests/LoginTests.swift", resolver.resolve("KitTests.LoginTests").relativePath());
+        assertEquals("AppTests/LoginTests.swift", resolver.resolve("AppTests.LoginTests").relativePath());
+        // no module: the first test file in path order
+        assertEquals("AppTests/LoginTests.swift", resolver.resolve("LoginTests").relativePath());
+        assertEquals("KitTests/ParserTests.swift", resolver.resolve("AppTests.ParserTests").relativePath());
+        assertNull(resolver.resolve("AppTests.MissingTests"));
+    }
+
+    private static void add(DefaultFileSystem fileSystem, String relativePath, InputFile.Type type) {
+        fileSystem.add(new DefaultInputFile("project", relativePath)
+                .setAbsolutePath(new File(fileSystem.baseDir(), relativePath).getAbsolutePath())
+                .setType(type));
+    }
+}
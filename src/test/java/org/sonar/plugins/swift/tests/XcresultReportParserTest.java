@@ -0,0 +1,90 @@
+/*
+ * SonarQube Swift Plugin
+ * Copyright (C) 2015 Backelite
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.swift.tests;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sonar.plugins.surefire.TestCaseDetails;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class XcresultReportParserTest {
+
+    @Test
+    public void parseReportShouldGroupTestsByClassOfEachTarget() throws Exception {
+        XcresultReportParser parser = new XcresultReportParser();
+        parser.parseReport(resource("/tests/xcresult.json"));
+        Map<String, TestSuiteSnapshot> suites = parser.suites();
+
+        assertEquals(ImmutableList.of("AppTests.LoginTests", "AppTests.ProfileTests", "KitTests.ParserTests"),
+                ImmutableList.copyOf(suites.keySet()));
+
+        // AppTests also ran in a second configuration
+        TestSuiteSnapshot login = suites.get("AppTests.LoginTests");
+        assertEquals(2, login.getTests());
+        assertEquals(1, login.getFailures());
+        assertEquals(0, login.getErrors());
+        assertEquals(600, login.getTimeMS());
+        assertEquals("testLogout", login.getDetails().get(1).getName());
+        assertEquals(TestCaseDetails.STATUS_FAILURE, login.getDetails().get(1).getStatus());
+        assertEquals(350, login.getDetails().get(1).getTimeMS());
+
+        TestSuiteSnapshot profile = suites.get("AppTests.ProfileTests");
+        assertEquals(2, profile.getTests());
+        assertEquals(1, profile.getSkipped());
+
+        assertEquals(1500, suites.get("KitTests.ParserTests").getTimeMS());
+        assertNull(login.getDetails().get(1).getErrorMessage());
+    }
+
+    @Test
+    public void failuresOfTheInvocationRecordShouldGoToTheirTestCase() throws Exception {
+        XcresultReportParser parser = new XcresultReportParser();
+        // the invocation record may come first
+        parser.parseReport(resource("/tests/xcresult-invocation.json"));
+        parser.parseReport(resource("/tests/xcresult.json"));
+
+        TestSuiteSnapshot login = parser.suites().get("AppTests.LoginTests");
+        assertNull(login.getDetails().get(0).getErrorMessage());
+
+        TestCaseSnapshot logout = login.getDetails().get(1);
+        assertEquals("XCTAssertTrue failed - session still open", logout.getErrorMessage());
+        assertEquals("XCTAssertTrue failed - session still open\n\tat /Users/dev/App/AppTests/LoginTests.swift:42\n"
+                + "XCTAssertNil failed: \"token\"\n\tat /Users/dev/App/AppTests/LoginTests.swift:45\n", logout.getStackTrace());
+    }
+
+    @Test
+    public void firstReportOfAClassShouldWin() throws Exception {
+        XcresultReportParser parser = new XcresultReportParser();
+        parser.parseReport(resource("/tests/xcresult.json"));
+        parser.parseReport(resource("/tests/xcresult.json"));
+
+        Map<String, TestSuiteSnapshot> suites = parser.suites();
+        assertEquals(3, suites.size());
+        assertEquals(2, suites.get("AppTests.LoginTests").getTests());
+    }
+
+    private File resource(String path) throws Exception {
+        return new File(getClass().getResource(path).toURI());
+    }
+}
@@ -0,0 +1,74 @@
+import Foundation
+
+protocol Greeter {
+    var name: String { get }
+    func greet() -> String
+}
+
+struct Person: Greeter {
+    let name: String
+
+    // 1
+    init(name: String) {
+        self.name = name
+    }
+
+    // 1 + guard + if + && + ternary = 5
+    func greet() -> String {
+        guard !name.isEmpty else {
+            return "Hello"
+        }
+        if name.count > 10 && name.hasPrefix("Dr") {
+            return "Good day"
+        }
+        return name.count > 3 ? "Hi \(name)" : "Yo"
+    }
+
+    // 1 + for + case + case + catch + catch + nested function (1 + while + ||) = 6 + 3
+    func describe(_ values: [Int]) -> String {
+        func isSmall(_ value: Int) -> Bool {
+            var current = value
+            while current > 10 || current < -10 {
+                current /= 10
+            }
+            return current == value
+        }
+        var text = ""
+        for value in values.filter({ isSmall($0) }) {
+            switch value {
+            case 0:
+                text += "zero"
+            case 1, 2:
+                text += "few"
+            default:
+                text += "many"
+            }
+        }
+        do {
+            try validate(text)
+        } catch let error as NSError {
+            print(error)
+        } catch {
+            print(error)
+        }
+        return text
+    }
+
+    // 1
+    subscript(index: Int) -> Character {
+        return Array(name)[index]
+    }
+
+    private func validate(_ text: String) throws {
+    }
+}
+
+// top level: if + repeat = 2
+let person = Person(name: "Ada")
+if person.name.isEmpty {
+    print("nobody")
+}
+var count = 0
+repeat {
+    count += 1
+} while count < 3
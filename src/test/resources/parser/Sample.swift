@@ -0,0 +1,216 @@
+// Constructs the grammar has to parse without recovery
+@testable import Foundation
+import struct Swift.Array
+
+precedencegroup PowerPrecedence {
+    higherThan: MultiplicationPrecedence
+}
+
+infix operator ** : PowerPrecedence
+
+func ** (lhs: Double, rhs: Double) -> Double {
+    return pow(lhs, rhs)
+}
+
+protocol Shape: AnyObject {
+    associatedtype Unit: Numeric = Double
+    var area: Unit { get }
+    var name: String { get set }
+    func scaled(by factor: Double) -> Self
+}
+
+enum Direction: String, CaseIterable {
+    case north = "N", south = "S"
+    case east
+    case west
+
+    indirect case custom(name: String, Direction)
+
+    var opposite: Direction {
+        switch self {
+        case .north: return .south
+        case .south: return .north
+        case .east, .west:
+            return self == .east ? .west : .east
+        case let .custom(name, direction) where !name.isEmpty:
+            return direction.opposite
+        case .custom(_, let direction):
+            return direction
+        @unknown default:
+            fatalError("unknown")
+        }
+    }
+}
+
+struct Stack<Element: Equatable>: Sequence where Element: Hashable {
+    private(set) var items: [Element] = []
+    var count = 0 {
+        willSet { print("will set \(newValue)") }
+        didSet(oldCount) {
+            guard count != oldCount else { return }
+        }
+    }
+
+    mutating func push(_ item: Element) {
+        items.append(item)
+    }
+
+    mutating func pop() -> Element? {
+        return items.isEmpty ? nil : items.removeLast()
+    }
+
+    subscript(index: Int) -> Element {
+        get { return items[index] }
+        set(newValue) { items[index] = newValue }
+    }
+
+    func makeIterator() -> IndexingIterator<[Element]> {
+        return items.makeIterator()
+    }
+}
+
+final class ViewModel: NSObject, Shape {
+    typealias Handler = (Result<[String: Int], Error>) -> Void
+
+    static let shared = ViewModel(name: "shared")
+    lazy var formatter: DateFormatter = {
+        let formatter = DateFormatter()
+        formatter.dateFormat = "yyyy-MM-dd"
+        return formatter
+    }()
+    weak var delegate: AnyObject?
+    var name: String
+    var area: Double { return 0 }
+    private var handlers = [Handler]()
+    private let queue = DispatchQueue(label: "queue", attributes: .concurrent)
+
+    init(name: String) {
+        self.name = name
+        super.init()
+    }
+
+    convenience init?(json: [String: Any]) throws {
+        guard let name = json["name"] as? String, !name.isEmpty else {
+            return nil
+        }
+        self.init(name: name)
+    }
+
+    deinit {
+        handlers.removeAll()
+    }
+
+    func scaled(by factor: Double) -> Self {
+        return self
+    }
+
+    @discardableResult
+    func load<T: Decodable>(_ type: T.Type, from url: URL, completion: @escaping (T?) -> Void) -> Bool {
+        queue.async { [weak self] in
+            guard let self = self else { return }
+            do {
+                let data = try Data(contentsOf: url)
+                let value = try JSONDecoder().decode(T.self, from: data)
+                DispatchQueue.main.async {
+                    completion(value)
+                }
+            } catch let error as DecodingError {
+                print(error)
+                completion(nil)
+            } catch {
+                completion(nil)
+            }
+            self.handlers.forEach { $0(.success([:])) }
+        }
+        return true
+    }
+
+    func statistics(of values: [Int]) -> (min: Int, max: Int, sum: Int)? {
+        if values.isEmpty {
+            return nil
+        } else if values.count == 1, let first = values.first {
+            return (first, first, first)
+        }
+        var minimum = Int.max, maximum = Int.min
+        var sum = 0
+        for value in values where value > 0 {
+            minimum = min(minimum, value)
+            maximum = max(maximum, value)
+            sum += value
+        }
+        for (index, value) in values.enumerated() {
+            if index % 2 == 0 && value < 0 || index > 10 {
+                continue
+            }
+        }
+        outer: for i in 0..<values.count {
+            for j in stride(from: i, to: values.count, by: 2) {
+                if values[j] < 0 { break outer }
+            }
+        }
+        var i = 0
+        while i < values.count {
+            i += 1
+        }
+        repeat {
+            i -= 1
+        } while i > 0
+        let sorted = values.sorted { $0 > $1 }.map { value -> String in "\(value)" }
+        let total = values.reduce(0, +)
+        let evens = values.filter { (value: Int) -> Bool in
+            return value % 2 == 0
+        }
+        let path = \ViewModel.name
+        let shifted = total >> 2 << 1
+        _ = (sorted, evens, path, shifted)
+        defer { print("done") }
+        return (minimum, maximum, sum)
+    }
+
+    func perform() async throws -> [String] {
+        async let first = fetch(1)
+        let results = try await [first, fetch(2)]
+        if #available(iOS 15, macOS 12, *) {
+            print(#selector(description))
+        }
+        return results.compactMap { $0 }
+    }
+
+    private func fetch(_ id: Int) async throws -> String? {
+        try? await Task.sleep(nanoseconds: 100)
+        return id > 0 ? String(id) : nil
+    }
+}
+
+extension ViewModel {
+    override var description: String { "ViewModel(\(name))" }
+
+    func animate() {
+        UIView.animate(withDuration: 0.3) {
+            self.delegate = nil
+        } completion: { finished in
+            print(finished)
+        }
+    }
+}
+
+#if DEBUG
+let debugMode = true
+#elseif os(iOS)
+let debugMode = false
+#else
+let debugMode = false
+#endif
+
+let matrix: [[Int]] = [[1, 2], [3, 4],]
+let lookup: Dictionary<String, Array<Int>> = ["a": [1], "b": []]
+var optionalValue: Int?? = nil
+if case .some(let value)? = optionalValue, value != nil {
+    print(value as Any)
+}
+let raw = #"a "quoted" \(text)"#
+let multiLine = """
+    first line
+    second line
+    """
+print(matrix, lookup, raw, multiLine, 2 ** 8)